@@ -0,0 +1,409 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+// Local HTTP/JSON API over EventStore, built on the JDK's own HTTP server (no external dependencies).
+// Every request runs on its own virtual thread, so slow clients never starve the others.
+//
+//   GET    /events?from=..&to=..      events overlapping the range
+//   GET    /events?q=keyword          search title/description
+//   GET    /events/{id}               single event
+//   POST   /events                    create  (409 on conflict unless "force": true)
+//   PUT    /events/{id}               update  (same conflict rule)
+//   DELETE /events/{id}               delete
+//   GET    /conflicts?start=..&end=..[&ignore=id]
+//   GET    /months/{yyyy-MM}          month view with ETag / If-None-Match support
+//
+// Times are ISO local date-times (2026-01-19T09:00) in the calendar's display zone, or in the
+// zone named by a "zone" field/parameter (Europe/Paris); a bare date means start of that day and
+// an explicit offset (2026-01-19T09:00+01:00) is taken as is. Responses give local times in the
+// display zone plus the event's own zone and the exact instants as epoch milliseconds.
+public class ApiServer {
+
+    private static final int DEFAULT_PORT = 8080;
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        HttpServer server = start(port);
+        System.out.println("Calendar API listening on http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    // Binds to loopback only: this is for local tools, not the open network
+    public static HttpServer start(int port) throws IOException {
+        EventStore.reload(); // Load once up front instead of on the first request
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 4096);
+        server.createContext("/events", ApiServer::handleEvents);
+        server.createContext("/conflicts", ApiServer::handleConflicts);
+        server.createContext("/months", ApiServer::handleMonth);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        return server;
+    }
+
+    // Handlers
+
+    private static void handleEvents(HttpExchange ex) throws IOException {
+        try {
+            String method = ex.getRequestMethod();
+            String idPart = pathTail(ex, "/events");
+            Map<String, String> query = parseQuery(ex.getRequestURI().getRawQuery());
+            // One version for the whole request, including changes made by other processes
+            EventStore.Snapshot snapshot = EventStore.refresh();
+
+            if (idPart.isEmpty()) {
+                if (method.equals("GET")) {
+                    if (query.containsKey("q")) {
+                        send(ex, 200, toJson(EventStore.search(snapshot, query.get("q"))));
+                    } else {
+                        ZoneId zone = parseZone(query);
+                        long from = query.containsKey("from") ? parseTime(query.get("from"), zone) : Long.MIN_VALUE;
+                        long to = query.containsKey("to") ? parseTime(query.get("to"), zone) : Long.MAX_VALUE;
+                        send(ex, 200, toJson(EventStore.range(snapshot, from, to)));
+                    }
+                } else if (method.equals("POST")) {
+                    Map<String, String> body = Json.parseObject(readBody(ex));
+                    ZoneId zone = parseZone(body);
+                    long start = parseTime(required(body, "start"), zone);
+                    long end = parseTime(required(body, "end"), zone);
+                    if (!checkOrder(ex, start, end))
+                        return;
+                    Event created = EventStore.create(text(required(body, "title")), text(body.getOrDefault("description", "")),
+                            start, end, zone, isForced(body));
+                    ex.getResponseHeaders().set("Location", "/events/" + created.getId());
+                    send(ex, 201, toJson(created));
+                } else {
+                    sendError(ex, 405, "Method not allowed");
+                }
+                return;
+            }
+
+            int id = Integer.parseInt(idPart);
+            switch (method) {
+                case "GET": {
+                    Event event = EventStore.get(snapshot, id);
+                    if (event == null)
+                        sendError(ex, 404, "Event " + id + " not found");
+                    else
+                        send(ex, 200, toJson(event));
+                    break;
+                }
+                case "PUT": {
+                    Event old = EventStore.get(snapshot, id);
+                    if (old == null) {
+                        sendError(ex, 404, "Event " + id + " not found");
+                        break;
+                    }
+                    if (EventStore.isArchived(snapshot, id)) {
+                        sendError(ex, 409, "Event " + id + " is archived and read-only");
+                        break;
+                    }
+                    // Missing fields keep their current value
+                    Map<String, String> body = Json.parseObject(readBody(ex));
+                    ZoneId zone = body.containsKey("zone") ? parseZone(body) : old.getZone();
+                    long start = body.containsKey("start") ? parseTime(body.get("start"), zone) : old.getStartMillis();
+                    long end = body.containsKey("end") ? parseTime(body.get("end"), zone) : old.getEndMillis();
+                    if (!checkOrder(ex, start, end))
+                        break;
+                    Event updated = EventStore.update(id, text(body.getOrDefault("title", old.getTitle())),
+                            text(body.getOrDefault("description", old.getDescription())), start, end, zone, isForced(body));
+                    if (updated == null)
+                        sendError(ex, 404, "Event " + id + " not found");
+                    else
+                        send(ex, 200, toJson(updated));
+                    break;
+                }
+                case "DELETE":
+                    if (EventStore.delete(id))
+                        send(ex, 204, null);
+                    else if (EventStore.isArchived(EventStore.snapshot(), id)) // As of the delete
+                        sendError(ex, 409, "Event " + id + " is archived and read-only");
+                    else
+                        sendError(ex, 404, "Event " + id + " not found");
+                    break;
+                default:
+                    sendError(ex, 405, "Method not allowed");
+            }
+        } catch (EventStore.ConflictException e) {
+            send(ex, 409, "{\"error\":\"Time conflict\",\"event\":" + toJson(e.getConflict()) + "}");
+        } catch (DateTimeException | IllegalArgumentException e) {
+            sendError(ex, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            sendError(ex, 500, "Internal error");
+        }
+    }
+
+    private static void handleConflicts(HttpExchange ex) throws IOException {
+        try {
+            if (!ex.getRequestMethod().equals("GET")) {
+                sendError(ex, 405, "Method not allowed");
+                return;
+            }
+            Map<String, String> query = parseQuery(ex.getRequestURI().getRawQuery());
+            ZoneId zone = parseZone(query);
+            long start = parseTime(required(query, "start"), zone);
+            long end = parseTime(required(query, "end"), zone);
+            int ignore = Integer.parseInt(query.getOrDefault("ignore", "-1"));
+            Event conflict = EventStore.refresh().findConflict(start, end, ignore);
+            send(ex, 200, "{\"conflict\":" + (conflict != null)
+                    + (conflict != null ? ",\"event\":" + toJson(conflict) : "") + "}");
+        } catch (DateTimeException | IllegalArgumentException e) {
+            sendError(ex, 400, e.getMessage());
+        }
+    }
+
+    // Month views are what dashboards poll, so they get conditional GET:
+    // an unchanged month answers 304 without building the body at all.
+    private static void handleMonth(HttpExchange ex) throws IOException {
+        try {
+            if (!ex.getRequestMethod().equals("GET")) {
+                sendError(ex, 405, "Method not allowed");
+                return;
+            }
+            YearMonth month = YearMonth.parse(pathTail(ex, "/months"));
+            EventStore.Snapshot snapshot = EventStore.refresh(); // The ETag and the body describe this one version
+            String etag = "\"" + snapshot.monthTag(month) + "\"";
+            ex.getResponseHeaders().set("ETag", etag);
+            ex.getResponseHeaders().set("Cache-Control", "no-cache");
+
+            String ifNoneMatch = ex.getRequestHeaders().getFirst("If-None-Match");
+            if (ifNoneMatch != null && (ifNoneMatch.equals(etag) || ifNoneMatch.equals("*"))) {
+                send(ex, 304, null);
+                return;
+            }
+            List<Event> events = EventStore.range(snapshot, ZoneCache.toEpochMillis(month.atDay(1).atStartOfDay()),
+                    ZoneCache.toEpochMillis(month.plusMonths(1).atDay(1).atStartOfDay()));
+            send(ex, 200, "{\"month\":\"" + month + "\",\"events\":" + toJson(events) + "}");
+        } catch (DateTimeParseException e) {
+            sendError(ex, 400, "Month must be yyyy-MM");
+        }
+    }
+
+    // Returns false (and answers 400) if the end is before the start
+    private static boolean checkOrder(HttpExchange ex, long start, long end) throws IOException {
+        if (end < start) {
+            sendError(ex, 400, "End time cannot be before start time");
+            return false;
+        }
+        return true;
+    }
+
+    // Conflicting writes are rejected with 409 unless the client sends "force": true
+    private static boolean isForced(Map<String, String> body) {
+        return "true".equals(body.get("force"));
+    }
+
+    // HTTP Helpers
+
+    private static String pathTail(HttpExchange ex, String prefix) {
+        String path = ex.getRequestURI().getPath().substring(prefix.length());
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+
+    private static Map<String, String> parseQuery(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null || raw.isEmpty())
+            return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static String required(Map<String, String> params, String key) {
+        String value = params.get(key);
+        if (value == null)
+            throw new IllegalArgumentException("Missing field: " + key);
+        return value;
+    }
+
+    // Each event is one CSV line, so line breaks and other control characters are rejected (400)
+    private static String text(String value) {
+        for (int i = 0; i < value.length(); i++)
+            if (Character.isISOControl(value.charAt(i)))
+                throw new IllegalArgumentException("Title and description cannot contain control characters");
+        return value;
+    }
+
+    // Epoch millis of a date, local date-time or offset date-time, local forms read in the given zone
+    private static long parseTime(String text, ZoneId zone) {
+        if (text.length() <= 10)
+            return ZoneCache.toEpochMillis(LocalDate.parse(text).atStartOfDay(), zone);
+        return ZoneCache.parse(text, zone);
+    }
+
+    private static ZoneId parseZone(Map<String, String> params) {
+        String zone = params.get("zone");
+        return zone == null || zone.isEmpty() ? ZoneCache.DISPLAY_ZONE : ZoneId.of(zone);
+    }
+
+    private static String readBody(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void send(HttpExchange ex, int status, String json) throws IOException {
+        if (json == null) {
+            ex.sendResponseHeaders(status, -1); // No body
+            ex.close();
+            return;
+        }
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendError(HttpExchange ex, int status, String message) throws IOException {
+        send(ex, status, "{\"error\":" + Json.quote(message == null ? "Bad request" : message) + "}");
+    }
+
+    // JSON Helpers
+
+    static String toJson(Event e) {
+        return "{\"id\":" + e.getId()
+                + ",\"title\":" + Json.quote(e.getTitle())
+                + ",\"description\":" + Json.quote(e.getDescription())
+                + ",\"start\":\"" + e.getStartDateTime().format(Event.FILE_FORMATTER) + "\""
+                + ",\"end\":\"" + e.getEndDateTime().format(Event.FILE_FORMATTER) + "\""
+                + ",\"zone\":" + Json.quote(e.getZone().getId())
+                + ",\"startEpochMs\":" + e.getStartMillis()
+                + ",\"endEpochMs\":" + e.getEndMillis() + "}";
+    }
+
+    static String toJson(List<Event> events) {
+        StringBuilder sb = new StringBuilder(events.size() * 128 + 2).append('[');
+        for (int i = 0; i < events.size(); i++) {
+            if (i > 0)
+                sb.append(',');
+            sb.append(toJson(events.get(i)));
+        }
+        return sb.append(']').toString();
+    }
+
+    // Just enough JSON for flat request bodies like {"title":"x","start":"...","force":true}
+    static class Json {
+
+        static String quote(String s) {
+            StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"': sb.append("\\\""); break;
+                    case '\\': sb.append("\\\\"); break;
+                    case '\n': sb.append("\\n"); break;
+                    case '\r': sb.append("\\r"); break;
+                    case '\t': sb.append("\\t"); break;
+                    default:
+                        if (c < 0x20)
+                            sb.append(String.format("\\u%04x", (int) c));
+                        else
+                            sb.append(c);
+                }
+            }
+            return sb.append('"').toString();
+        }
+
+        // Parses one flat object; every value (string, number, boolean) is returned as a string
+        static Map<String, String> parseObject(String text) {
+            Map<String, String> result = new HashMap<>();
+            int[] pos = { skipSpace(text, 0) };
+            expect(text, pos, '{');
+            if (peek(text, pos) == '}')
+                return result;
+            while (true) {
+                String key = readString(text, pos);
+                expect(text, pos, ':');
+                String value = peek(text, pos) == '"' ? readString(text, pos) : readLiteral(text, pos);
+                if (value != null)
+                    result.put(key, value);
+                char c = peek(text, pos);
+                pos[0]++;
+                if (c == '}')
+                    return result;
+                if (c != ',')
+                    throw new IllegalArgumentException("Malformed JSON body");
+            }
+        }
+
+        private static String readString(String text, int[] pos) {
+            expect(text, pos, '"');
+            StringBuilder sb = new StringBuilder();
+            int i = pos[0];
+            while (i < text.length() && text.charAt(i) != '"') {
+                char c = text.charAt(i++);
+                if (c == '\\' && i < text.length()) {
+                    char esc = text.charAt(i++);
+                    switch (esc) {
+                        case 'n': sb.append('\n'); break;
+                        case 'r': sb.append('\r'); break;
+                        case 't': sb.append('\t'); break;
+                        case 'u':
+                            if (i + 4 > text.length())
+                                throw new IllegalArgumentException("Malformed JSON body");
+                            sb.append((char) Integer.parseInt(text.substring(i, i + 4), 16));
+                            i += 4;
+                            break;
+                        default: sb.append(esc);
+                    }
+                } else {
+                    sb.append(c);
+                }
+            }
+            if (i >= text.length())
+                throw new IllegalArgumentException("Unterminated string in JSON body");
+            pos[0] = skipSpace(text, i + 1);
+            return sb.toString();
+        }
+
+        // Numbers and booleans as text; null means "not given"
+        private static String readLiteral(String text, int[] pos) {
+            int i = pos[0];
+            while (i < text.length() && ",} \t\r\n".indexOf(text.charAt(i)) < 0)
+                i++;
+            String literal = text.substring(pos[0], i);
+            pos[0] = skipSpace(text, i);
+            if (literal.isEmpty())
+                throw new IllegalArgumentException("Malformed JSON body");
+            return literal.equals("null") ? null : literal;
+        }
+
+        private static void expect(String text, int[] pos, char c) {
+            if (peek(text, pos) != c)
+                throw new IllegalArgumentException("Malformed JSON body, expected '" + c + "'");
+            pos[0] = skipSpace(text, pos[0] + 1);
+        }
+
+        private static char peek(String text, int[] pos) {
+            return pos[0] < text.length() ? text.charAt(pos[0]) : 0;
+        }
+
+        private static int skipSpace(String text, int i) {
+            while (i < text.length() && Character.isWhitespace(text.charAt(i)))
+                i++;
+            return i;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Cold storage for past events.
+//
+// Events that ended before the horizon are moved out of events.csv into read-only
+// segment files next to it (events_archive/segment-00001.dat + .idx). A segment is a
+// run of independently GZIP-compressed blocks of CSV lines sorted by start time; the
+// .idx file lists each block's offset, size, time span and id span. Queries read the
+// small index first and only decompress blocks that can match, and recently used
+// blocks stay decompressed in an LRU cache.
+public class ArchiveManager {
+
+    // Configurable with -Dcalendar.archiveDays=N (N >= 0; anything else falls back to 365)
+    public static final int DEFAULT_HORIZON_DAYS = horizonDays();
+    private static final int EVENTS_PER_BLOCK = 512;
+    private static final int CACHED_BLOCKS = 32;
+
+    private static final Path ARCHIVE_DIR = Paths.get(FileManager.FILE_PATH.replaceAll("\\.csv$", "") + "_archive");
+
+    // One compressed block inside a segment file
+    private static final class Block {
+        final Path segment;
+        final long offset;
+        final int length;
+        final int count;
+        final long firstStart; // Epoch millis
+        final long maxEnd;
+        final int minId, maxId;
+
+        Block(Path segment, long offset, int length, int count, long firstStart, long maxEnd,
+                int minId, int maxId) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.count = count;
+            this.firstStart = firstStart;
+            this.maxEnd = maxEnd;
+            this.minId = minId;
+            this.maxId = maxId;
+        }
+
+        // Could any event in the block pass Event.occursIn(from, to)?
+        boolean mayOccurIn(long from, long to) {
+            return firstStart < to && maxEnd >= from;
+        }
+    }
+
+    // All blocks of all segments, plus the directory mtime they were read at: another
+    // process (CLIApp archive) may add a segment while this one is running
+    private static final class Index {
+        final long stamp;
+        final List<Block> blocks;
+
+        Index(long stamp, List<Block> blocks) {
+            this.stamp = stamp;
+            this.blocks = blocks;
+        }
+    }
+
+    private static volatile Index index; // Loaded on first use
+    // Locks, not monitors, around file I/O, so a blocked virtual thread can unmount
+    private static final ReentrantLock writeLock = new ReentrantLock(); // One segment writer at a time
+    private static final ReentrantLock indexLock = new ReentrantLock(); // One index load at a time
+    private static final Map<Block, List<Event>> cache = new LinkedHashMap<>(CACHED_BLOCKS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Block, List<Event>> eldest) {
+            return size() > CACHED_BLOCKS;
+        }
+    };
+
+    // Core Function: Write a New Segment
+    // Returns false if nothing could be written; the caller must then keep the events in the hot file.
+
+    public static boolean writeSegment(List<Event> events) {
+        if (events.isEmpty())
+            return true;
+        List<Event> sorted = new ArrayList<>(events);
+        sorted.sort(null);
+
+        writeLock.lock();
+        try {
+            Files.createDirectories(ARCHIVE_DIR);
+            String name = String.format("segment-%05d", loadIndexFiles().size() + 1);
+            Path data = ARCHIVE_DIR.resolve(name + ".dat");
+            Path idx = ARCHIVE_DIR.resolve(name + ".idx");
+
+            List<String> indexLines = new ArrayList<>();
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(data))) {
+                long offset = 0;
+                for (int from = 0; from < sorted.size(); from += EVENTS_PER_BLOCK) {
+                    List<Event> chunk = sorted.subList(from, Math.min(from + EVENTS_PER_BLOCK, sorted.size()));
+                    byte[] compressed = compress(chunk);
+                    out.write(compressed);
+
+                    long maxEnd = Long.MIN_VALUE;
+                    int minId = Integer.MAX_VALUE, maxId = Integer.MIN_VALUE;
+                    for (Event e : chunk) {
+                        maxEnd = Math.max(maxEnd, e.getEndMillis());
+                        minId = Math.min(minId, e.getId());
+                        maxId = Math.max(maxId, e.getId());
+                    }
+                    indexLines.add(offset + "," + compressed.length + "," + chunk.size() + ","
+                            + chunk.get(0).getStartMillis() + "," + maxEnd + "," + minId + "," + maxId);
+                    offset += compressed.length;
+                }
+            }
+
+            // The index is written last: a segment without one is ignored, so a crash
+            // half way through never exposes a broken segment.
+            Path tempIdx = ARCHIVE_DIR.resolve(name + ".idx.tmp");
+            Files.write(tempIdx, indexLines, StandardCharsets.UTF_8);
+            Files.move(tempIdx, idx, StandardCopyOption.ATOMIC_MOVE);
+            index = null; // Reload on next query
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Queries
+
+    // Streams archived events occurring in [from, to) (see Event.occursIn)
+    public static void forEachInRange(long from, long to, Consumer<Event> action) {
+        for (Block block : index()) {
+            if (!block.mayOccurIn(from, to))
+                continue; // Skipped without decompressing
+            for (Event e : read(block))
+                if (e.occursIn(from, to))
+                    action.accept(e);
+        }
+    }
+
+    public static void forEachMatch(String keyword, Consumer<Event> action) {
+        String lowerKeyword = keyword.toLowerCase();
+        forEach(e -> {
+            if (e.getTitle().toLowerCase().contains(lowerKeyword) ||
+                    e.getDescription().toLowerCase().contains(lowerKeyword))
+                action.accept(e);
+        });
+    }
+
+    public static void forEach(Consumer<Event> action) {
+        for (Block block : index())
+            read(block).forEach(action);
+    }
+
+    public static Event get(int id) {
+        for (Block block : index()) {
+            if (id < block.minId || id > block.maxId)
+                continue;
+            for (Event e : read(block))
+                if (e.getId() == id)
+                    return e;
+        }
+        return null;
+    }
+
+    // Test for hot copies of archived events, left behind when the data file could not be
+    // rewritten after a segment was written. A match is by id alone; since such a copy keeps
+    // the archived event's times, they only narrow which blocks are decompressed and searched.
+    // Fetch it once per query or load: the index is read here, not per event, and with no
+    // archive the test is a constant false. Most hot events end after every archived one
+    // and are answered by a single comparison.
+    public static Predicate<Event> archivedTest() {
+        List<Block> blocks = index();
+        if (blocks.isEmpty())
+            return e -> false;
+        long latestEnd = Long.MIN_VALUE;
+        for (Block block : blocks)
+            latestEnd = Math.max(latestEnd, block.maxEnd);
+        long maxEnd = latestEnd;
+        return e -> e.getEndMillis() <= maxEnd && contains(blocks, e);
+    }
+
+    private static boolean contains(List<Block> blocks, Event e) {
+        for (Block block : blocks) {
+            if (e.getId() < block.minId || e.getId() > block.maxId
+                    || e.getStartMillis() < block.firstStart || e.getEndMillis() > block.maxEnd)
+                continue;
+            for (Event archived : read(block))
+                if (archived.getId() == e.getId())
+                    return true;
+        }
+        return false;
+    }
+
+    // Answered from the index alone
+    public static int count() {
+        int total = 0;
+        for (Block block : index())
+            total += block.count;
+        return total;
+    }
+
+    // Highest archived id, so new events never reuse one (0 if the archive is empty)
+    public static int maxId() {
+        int max = 0;
+        for (Block block : index())
+            max = Math.max(max, block.maxId);
+        return max;
+    }
+
+    // Helpers
+
+    private static int horizonDays() {
+        int days = Integer.getInteger("calendar.archiveDays", 365);
+        if (days < 0) {
+            System.err.println("Ignoring negative calendar.archiveDays=" + days + ", using 365");
+            return 365;
+        }
+        return days;
+    }
+
+    // One stat call per query; the index is re-read only when a segment was added
+    private static List<Block> index() {
+        long stamp = directoryStamp();
+        Index current = index;
+        if (current == null || current.stamp != stamp) {
+            indexLock.lock();
+            try {
+                if (index == null || index.stamp != stamp)
+                    index = new Index(stamp, loadIndex());
+                current = index;
+            } finally {
+                indexLock.unlock();
+            }
+        }
+        return current.blocks;
+    }
+
+    // 0 when there is no archive directory yet (no exception thrown and caught per call)
+    private static long directoryStamp() {
+        return ARCHIVE_DIR.toFile().lastModified();
+    }
+
+    private static List<Block> loadIndex() {
+        List<Block> blocks = new ArrayList<>();
+        for (Path idx : loadIndexFiles()) {
+            Path data = Paths.get(idx.toString().replaceAll("\\.idx$", ".dat"));
+            try {
+                for (String line : Files.readAllLines(idx, StandardCharsets.UTF_8)) {
+                    String[] p = line.split(",");
+                    if (p.length < 7)
+                        continue;
+                    blocks.add(new Block(data, Long.parseLong(p[0]), Integer.parseInt(p[1]), Integer.parseInt(p[2]),
+                            Long.parseLong(p[3]), Long.parseLong(p[4]),
+                            Integer.parseInt(p[5]), Integer.parseInt(p[6])));
+                }
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Skipping unreadable archive index " + idx + ": " + e.getMessage());
+            }
+        }
+        return Collections.unmodifiableList(blocks);
+    }
+
+    private static List<Path> loadIndexFiles() {
+        if (!Files.isDirectory(ARCHIVE_DIR))
+            return List.of();
+        try (Stream<Path> files = Files.list(ARCHIVE_DIR)) {
+            List<Path> result = new ArrayList<>();
+            files.filter(p -> p.getFileName().toString().endsWith(".idx")).sorted().forEach(result::add);
+            return result;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return List.of();
+        }
+    }
+
+    // Decompressed blocks are cached; a miss reads exactly one block from disk
+    private static List<Event> read(Block block) {
+        synchronized (cache) {
+            List<Event> cached = cache.get(block);
+            if (cached != null)
+                return cached;
+        }
+        List<Event> events = new ArrayList<>(block.count);
+        try (RandomAccessFile file = new RandomAccessFile(block.segment.toFile(), "r")) {
+            byte[] compressed = new byte[block.length];
+            file.seek(block.offset);
+            file.readFully(compressed);
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(new ByteArrayInputStream(compressed)), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    Event e = FileManager.parseLine(line);
+                    if (e != null)
+                        events.add(e);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading archive block in " + block.segment + ": " + e.getMessage());
+            return List.of();
+        }
+        List<Event> result = Collections.unmodifiableList(events);
+        synchronized (cache) {
+            cache.put(block, result);
+        }
+        return result;
+    }
+
+    private static byte[] compress(List<Event> chunk) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer w = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8))) {
+            for (Event e : chunk) {
+                w.write(e.toCSV());
+                w.write('\n');
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,173 @@
+import java.io.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.function.Consumer;
+
+// Headless entry point for cron jobs and pipelines.
+// Never touches Swing/AWT, so it starts without a display and without loading the GUI toolkit.
+public class CLIApp {
+
+    private static final String USAGE = String.join("\n",
+            "Usage: java CLIApp [--csv] <command> [args]",
+            "  range <from> <to>           events overlapping or starting in the range (yyyy-MM-dd or yyyy-MM-dd HH:mm)",
+            "  search <keyword>            events whose title or description contains keyword",
+            "  conflicts                   every pair of overlapping events",
+            "  import <file>               append events from another CSV (new IDs are assigned)",
+            "  export <file|-> [from to]   write events as CSV to a file or stdout",
+            "  compact                     drop broken/duplicate lines and sort the data file",
+            "  archive [days]              move events that ended more than N days ago (default "
+                    + ArchiveManager.DEFAULT_HORIZON_DAYS + ") to compressed archive segments",
+            "  stats                       print the time analysis",
+            "Options:",
+            "  --csv                       print results as CSV lines instead of the table format",
+            "  -Dcalendar.file=<path>      data file to use (default: events.csv)",
+            "  -Dcalendar.archiveDays=<n>  default archive horizon in days",
+            "  -Dcalendar.zone=<zone>      time zone times are shown and entered in (default: system zone)");
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        System.exit(run(args));
+    }
+
+    // Returns the process exit code: 0 = ok, 1 = conflicts found, 2 = usage/IO error
+    static int run(String[] args) {
+        boolean csv = false;
+        int i = 0;
+        if (args.length > 0 && args[0].equals("--csv")) {
+            csv = true;
+            i++;
+        }
+        if (i >= args.length) {
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        String command = args[i++];
+        String[] rest = new String[args.length - i];
+        System.arraycopy(args, i, rest, 0, rest.length);
+
+        // One buffered writer for all output: printing line by line through System.out
+        // flushes on every newline, which dominates the cost on big result sets.
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16));
+        Consumer<Event> printer = csv ? e -> out.println(e.toCSV()) : out::println;
+        try {
+            switch (command) {
+                case "range":
+                    if (rest.length != 2)
+                        return usage();
+                    SchedulerLogic.forEachInRange(parseTime(rest[0], false), parseTime(rest[1], true), printer);
+                    return 0;
+
+                case "search":
+                    if (rest.length != 1)
+                        return usage();
+                    SchedulerLogic.forEachMatch(rest[0], printer);
+                    return 0;
+
+                case "conflicts":
+                    int pairs = SchedulerLogic.findConflicts((a, b) -> out.println(
+                            "CONFLICT: [" + a.getId() + "] " + a.getTitle() + " <-> [" + b.getId() + "] " + b.getTitle()));
+                    out.println(pairs + " conflicting pair(s)");
+                    return pairs > 0 ? 1 : 0;
+
+                case "import":
+                    if (rest.length != 1)
+                        return usage();
+                    int imported = FileManager.importEvents(rest[0]);
+                    if (imported < 0)
+                        return 2;
+                    out.println("Imported " + imported + " events");
+                    return 0;
+
+                case "export":
+                    if (rest.length != 1 && rest.length != 3)
+                        return usage();
+                    return export(rest, out);
+
+                case "compact":
+                    int removed = FileManager.compactEvents();
+                    if (removed < 0)
+                        return 2;
+                    out.println("Compacted data file, removed " + removed + " line(s)");
+                    return 0;
+
+                case "archive":
+                    if (rest.length > 1)
+                        return usage();
+                    int days = rest.length == 1 ? Integer.parseInt(rest[0]) : ArchiveManager.DEFAULT_HORIZON_DAYS;
+                    if (days < 0) {
+                        // Archived events are read-only for good, so future events must never get there
+                        System.err.println("Days must be 0 or more: " + days);
+                        return 2;
+                    }
+                    int archived = EventStore.archiveOlderThanDays(days);
+                    if (archived < 0)
+                        return 2;
+                    out.println("Archived " + archived + " events older than " + days + " days");
+                    return 0;
+
+                case "stats":
+                    out.flush();
+                    SchedulerLogic.showStatistics();
+                    return 0;
+
+                default:
+                    return usage();
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid number: " + e.getMessage());
+            return 2;
+        } catch (DateTimeParseException e) {
+            System.err.println("Invalid date: " + e.getParsedString() + " (use yyyy-MM-dd or yyyy-MM-dd HH:mm)");
+            return 2;
+        } finally {
+            out.flush();
+        }
+    }
+
+    // Streams matching events straight into the target, "-" means stdout
+    private static int export(String[] rest, PrintWriter stdout) {
+        LocalDateTime from = rest.length == 3 ? parseTime(rest[1], false) : LocalDateTime.MIN;
+        LocalDateTime to = rest.length == 3 ? parseTime(rest[2], true) : LocalDateTime.MAX;
+
+        if (rest[0].equals("-")) {
+            SchedulerLogic.forEachInRange(from, to, e -> stdout.println(e.toCSV()));
+            // System.out swallows errors too, so ask it as well (e.g. a full disk or closed pipe)
+            if (stdout.checkError() || System.out.checkError()) {
+                System.err.println("Export failed: write to stdout failed");
+                return 2;
+            }
+            return 0;
+        }
+        int[] count = { 0 };
+        try (PrintWriter file = new PrintWriter(new BufferedWriter(new FileWriter(rest[0])))) {
+            SchedulerLogic.forEachInRange(from, to, e -> {
+                file.println(e.toCSV());
+                count[0]++;
+            });
+            // PrintWriter never throws; checkError flushes and reports any failed write
+            if (file.checkError())
+                throw new IOException("write to " + rest[0] + " failed");
+        } catch (IOException e) {
+            System.err.println("Export failed: " + e.getMessage());
+            return 2;
+        }
+        stdout.println("Exported " + count[0] + " events to " + rest[0]);
+        return 0;
+    }
+
+    // Accepts a full "yyyy-MM-dd HH:mm" or a bare date.
+    // A bare end date means the whole day is included.
+    private static LocalDateTime parseTime(String text, boolean endOfRange) {
+        if (text.length() > 10)
+            return LocalDateTime.parse(text, Event.PRINT_FORMATTER);
+        LocalDate date = LocalDate.parse(text);
+        return endOfRange ? date.plusDays(1).atStartOfDay() : date.atStartOfDay();
+    }
+
+    private static int usage() {
+        System.err.println(USAGE);
+        return 2;
+    }
+}
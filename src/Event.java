@@ -1,23 +1,43 @@
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
 //sort event by time
+// Times are stored as UTC epoch millis plus the zone the event was entered in, so users
+// in different zones share one calendar; local date-times are derived for display only.
 public class Event implements Comparable<Event> {
     private int id;
     private String title;
     private String description;
-    private LocalDateTime startDateTime;
-    private LocalDateTime endDateTime;
+    private long startMillis;
+    private long endMillis;
+    private ZoneId zone;
+
+    // Display-zone views, built on first use (events are immutable)
+    private LocalDateTime startLocal;
+    private LocalDateTime endLocal;
 
     public static final DateTimeFormatter FILE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
     public static final DateTimeFormatter PRINT_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
 
+    // Local times in the display zone
     public Event(int id, String title, String description, LocalDateTime start, LocalDateTime end) {
+        this(id, title, description, start, end, ZoneCache.DISPLAY_ZONE);
+    }
+
+    // Local times as seen in the given zone
+    public Event(int id, String title, String description, LocalDateTime start, LocalDateTime end, ZoneId zone) {
+        this(id, title, description, ZoneCache.toEpochMillis(start, zone), ZoneCache.toEpochMillis(end, zone), zone);
+    }
+
+    public Event(int id, String title, String description, long startMillis, long endMillis, ZoneId zone) {
         this.id = id;
         this.title = title;
         this.description = description;
-        this.startDateTime = start;
-        this.endDateTime = end;
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+        this.zone = zone;
     }
 
     // Getters
@@ -33,27 +53,70 @@ public class Event implements Comparable<Event> {
         return description;
     }
 
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getEndMillis() {
+        return endMillis;
+    }
+
+    // Zone the event was entered in
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    // Start in the display zone
     public LocalDateTime getStartDateTime() {
-        return startDateTime;
+        LocalDateTime local = startLocal;
+        if (local == null)
+            startLocal = local = ZoneCache.toLocal(startMillis);
+        return local;
     }
 
     public LocalDateTime getEndDateTime() {
-        return endDateTime;
+        LocalDateTime local = endLocal;
+        if (local == null)
+            endLocal = local = ZoneCache.toLocal(endMillis);
+        return local;
+    }
+
+    public long getDurationMinutes() {
+        return (endMillis - startMillis) / 60_000L;
+    }
+
+    // Logic: (StartA < EndB) and (EndA > StartB) means overlap
+    public boolean overlaps(long fromMillis, long toMillis) {
+        return startMillis < toMillis && endMillis > fromMillis;
     }
 
+    // Range queries (days, months, exports): overlapping [from, to), plus a zero-length
+    // event starting inside it, which overlaps nothing but still belongs to that day
+    public boolean occursIn(long fromMillis, long toMillis) {
+        return startMillis < toMillis && (endMillis > fromMillis || startMillis >= fromMillis);
+    }
+
+    // Times are written in the event's own zone with their offset (2026-01-19T09:00:00+08:00),
+    // followed by the zone id, so the instant is exact even in a repeated DST hour.
+    // Older files without offset or zone are still read (see FileManager.parseLine).
     public String toCSV() {
-        String safeTitle = title.replace(",", "|");
-        String safeDesc = description.replace(",", "|");
+        String safeTitle = oneLine(title).replace(",", "|");
+        String safeDesc = oneLine(description).replace(",", "|");
         return id + "," + safeTitle + "," + safeDesc + "," +
-                startDateTime.format(FILE_FORMATTER) + "," + endDateTime.format(FILE_FORMATTER);
+                ZoneCache.format(startMillis, zone) + "," + ZoneCache.format(endMillis, zone) + "," + zone.getId();
+    }
+
+    // A line break would split the row in two and both halves would be dropped on load
+    private static String oneLine(String text) {
+        return text.replace('\r', ' ').replace('\n', ' ');
     }
 
     @Override
     public String toString() {
         return String.format("ID:%-3d | %s -> %s | %-20s | %s",
                 id,
-                startDateTime.format(PRINT_FORMATTER),
-                endDateTime.format(DateTimeFormatter.ofPattern("HH:mm")),
+                getStartDateTime().format(PRINT_FORMATTER),
+                getEndDateTime().format(TIME_FORMATTER),
                 title,
                 description);
     }
@@ -61,6 +124,6 @@ public class Event implements Comparable<Event> {
     // rank by start time
     @Override
     public int compareTo(Event other) {
-        return this.startDateTime.compareTo(other.startDateTime);
+        return Long.compare(this.startMillis, other.startMillis);
     }
-}
\ No newline at end of file
+}
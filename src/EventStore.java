@@ -0,0 +1,475 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Shared in-memory copy of events.csv for the GUI, the API server and anything else long-running.
+//
+// Readers call snapshot() and get an immutable, versioned view: it never changes under them,
+// needs no lock, and stays consistent for as long as they hold it (a whole stats pass, an export...).
+// Writers are serialized, build the next snapshot from persistent structures (only the
+// O(log n) changed nodes are copied), persist it through FileManager, then publish it;
+// if the file write fails nothing is published and the caller gets an UncheckedIOException.
+// Other processes (CLI imports, a second GUI) may write the same file, so every write
+// holds FileManager's file lock and first reloads if the file changed since it was read.
+// Snapshots hold the hot set only; the static query shortcuts below also include
+// events moved to the archive (see ArchiveManager), which are read-only.
+public class EventStore {
+
+    // A ReentrantLock rather than synchronized: writers do file I/O while holding it,
+    // and a virtual thread blocked inside synchronized would pin its carrier thread
+    private static final ReentrantLock writeLock = new ReentrantLock();
+    private static volatile Snapshot current; // Loaded on first use
+    private static volatile String fileStamp; // File version current was loaded from or last wrote (written under writeLock)
+    private static volatile long checkedAt; // System.nanoTime() of the last refresh() file check
+    private static final long REFRESH_INTERVAL_NANOS = 100_000_000L; // Readers look at the file at most every 100 ms
+    private static final long startedAt = System.currentTimeMillis(); // Keeps tags unique across restarts
+
+    // One immutable version of the calendar
+    public static final class Snapshot implements Iterable<Event> {
+        public final long version; // Bumped on every write
+        public final long generation; // Bumped on every full reload
+        private final PersistentIntMap<Event> byId;
+        private final PersistentEventTree byTime;
+        private final PersistentIntMap<Long> monthVersions; // Key: year * 12 + month - 1
+        private final int nextId;
+
+        private Snapshot(long version, long generation, PersistentIntMap<Event> byId, PersistentEventTree byTime,
+                PersistentIntMap<Long> monthVersions, int nextId) {
+            this.version = version;
+            this.generation = generation;
+            this.byId = byId;
+            this.byTime = byTime;
+            this.monthVersions = monthVersions;
+            this.nextId = nextId;
+        }
+
+        public int size() {
+            return byId.size();
+        }
+
+        public boolean isEmpty() {
+            return byId.size() == 0;
+        }
+
+        public Event get(int id) {
+            return byId.get(id);
+        }
+
+        // All events in start order
+        @Override
+        public Iterator<Event> iterator() {
+            return byTime.iterator();
+        }
+
+        public Stream<Event> stream() {
+            return StreamSupport.stream(spliterator(), false);
+        }
+
+        // Events occurring in [from, to) (see Event.occursIn), in start order
+        public void forEachInRange(long from, long to, Consumer<Event> action) {
+            byTime.forEachInRange(from, to, action);
+        }
+
+        // Display-zone local times
+        public void forEachInRange(LocalDateTime from, LocalDateTime to, Consumer<Event> action) {
+            byTime.forEachInRange(ZoneCache.toEpochMillis(from), ZoneCache.toEpochMillis(to), action);
+        }
+
+        public List<Event> range(LocalDateTime from, LocalDateTime to) {
+            List<Event> result = new ArrayList<>();
+            forEachInRange(from, to, result::add);
+            return result;
+        }
+
+        public List<Event> search(String keyword) {
+            String lowerKeyword = keyword.toLowerCase();
+            List<Event> result = new ArrayList<>();
+            for (Event e : byTime)
+                if (e.getTitle().toLowerCase().contains(lowerKeyword) ||
+                        e.getDescription().toLowerCase().contains(lowerKeyword))
+                    result.add(e);
+            return result;
+        }
+
+        // Returns the earliest event overlapping the slot (ignoring ignoreId), or null
+        public Event findConflict(long start, long end, int ignoreId) {
+            return byTime.firstOverlap(start, end, ignoreId);
+        }
+
+        public Event findConflict(LocalDateTime start, LocalDateTime end, int ignoreId) {
+            return byTime.firstOverlap(ZoneCache.toEpochMillis(start), ZoneCache.toEpochMillis(end), ignoreId);
+        }
+
+        // Changes whenever any event in the month is created, edited or deleted (used for ETags)
+        public String monthTag(YearMonth month) {
+            Long changes = monthVersions.get(monthKey(month));
+            return month + "-" + startedAt + "-" + generation + "-" + (changes == null ? 0 : changes);
+        }
+    }
+
+    // Core Function: Current Snapshot (lock-free)
+
+    public static Snapshot snapshot() {
+        Snapshot s = current;
+        if (s == null) {
+            writeLock.lock();
+            try {
+                if (current == null)
+                    reload();
+                s = current;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        return s;
+    }
+
+    // Core Function: Current Snapshot, reloaded first if another process changed the file
+    // For readers (API requests, the GUI): lock-free unless the file really changed, and the
+    // file is stat'ed at most once per REFRESH_INTERVAL_NANOS however many requests arrive.
+
+    public static Snapshot refresh() {
+        Snapshot s = snapshot();
+        long now = System.nanoTime();
+        if (now - checkedAt < REFRESH_INTERVAL_NANOS)
+            return s;
+        checkedAt = now;
+        if (FileManager.fileStamp().equals(fileStamp))
+            return s;
+        writeLock.lock();
+        try {
+            return fresh(); // Checks again: a writer may have reloaded meanwhile
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Core Function: Load (or Reload) from disk
+
+    public static void reload() {
+        writeLock.lock();
+        try {
+            String stamp = FileManager.fileStamp(); // Taken first: a change during the load only forces another reload
+            PersistentIntMap<Event> byId = PersistentIntMap.empty();
+            PersistentEventTree byTime = PersistentEventTree.EMPTY;
+            int nextId = ArchiveManager.maxId() + 1; // Never reuse an archived id
+            Predicate<Event> archived = ArchiveManager.archivedTest();
+            for (Event e : FileManager.loadEvents()) {
+                if (archived.test(e))
+                    continue; // Left behind by an interrupted archive run; gone after the next rewrite
+                Event duplicate = byId.get(e.getId());
+                if (duplicate != null)
+                    byTime = byTime.remove(duplicate); // Last line wins, like compact
+                byId = byId.put(e.getId(), e);
+                byTime = byTime.insert(e);
+                nextId = Math.max(nextId, e.getId() + 1);
+            }
+            Snapshot old = current;
+            long version = old == null ? 1 : old.version + 1;
+            long generation = old == null ? 1 : old.generation + 1;
+            // Every month changed, so the month counters start over under a new generation
+            current = new Snapshot(version, generation, byId, byTime, PersistentIntMap.empty(), nextId);
+            fileStamp = stamp;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Queries (current snapshot plus the archive)
+    // The overloads taking a Snapshot let a caller answer several questions (an ETag and
+    // the body it describes) from one consistent version.
+
+    public static Event get(int id) {
+        return get(snapshot(), id);
+    }
+
+    public static Event get(Snapshot s, int id) {
+        Event e = s.get(id);
+        return e != null ? e : ArchiveManager.get(id);
+    }
+
+    public static boolean isArchived(int id) {
+        return isArchived(snapshot(), id);
+    }
+
+    public static boolean isArchived(Snapshot s, int id) {
+        return s.get(id) == null && ArchiveManager.get(id) != null;
+    }
+
+    // Events occurring in [from, to) (see Event.occursIn), in start order
+    public static List<Event> range(long from, long to) {
+        return range(snapshot(), from, to);
+    }
+
+    public static List<Event> range(Snapshot s, long from, long to) {
+        List<Event> result = new ArrayList<>();
+        Set<Integer> archived = new HashSet<>();
+        ArchiveManager.forEachInRange(from, to, e -> {
+            archived.add(e.getId());
+            result.add(e);
+        });
+        s.forEachInRange(from, to, withoutArchived(archived, result::add));
+        if (!archived.isEmpty())
+            result.sort(null);
+        return result;
+    }
+
+    // Display-zone local times
+    public static List<Event> range(LocalDateTime from, LocalDateTime to) {
+        return range(ZoneCache.toEpochMillis(from), ZoneCache.toEpochMillis(to));
+    }
+
+    // Archived matches first, then the hot set in start order
+    public static void forEachInRange(long from, long to, Consumer<Event> action) {
+        Set<Integer> archived = new HashSet<>();
+        ArchiveManager.forEachInRange(from, to, e -> {
+            archived.add(e.getId());
+            action.accept(e);
+        });
+        snapshot().forEachInRange(from, to, withoutArchived(archived, action));
+    }
+
+    public static List<Event> search(String keyword) {
+        return search(snapshot(), keyword);
+    }
+
+    public static List<Event> search(Snapshot s, String keyword) {
+        List<Event> result = new ArrayList<>();
+        Set<Integer> archived = new HashSet<>();
+        ArchiveManager.forEachMatch(keyword, e -> {
+            archived.add(e.getId());
+            result.add(e);
+        });
+        s.search(keyword).forEach(withoutArchived(archived, result::add));
+        if (!archived.isEmpty())
+            result.sort(null);
+        return result;
+    }
+
+    // A snapshot loaded before another process archived some of its events still holds
+    // them; the archive copy is the one returned, so nothing is listed twice
+    static Consumer<Event> withoutArchived(Set<Integer> archivedIds, Consumer<Event> action) {
+        return e -> {
+            if (!archivedIds.contains(e.getId()))
+                action.accept(e);
+        };
+    }
+
+    public static Event findConflict(long start, long end, int ignoreId) {
+        return snapshot().findConflict(start, end, ignoreId);
+    }
+
+    public static Event findConflict(LocalDateTime start, LocalDateTime end, int ignoreId) {
+        return snapshot().findConflict(start, end, ignoreId);
+    }
+
+    public static String monthTag(YearMonth month) {
+        return snapshot().monthTag(month);
+    }
+
+    // Writes
+    // The conflict check runs under the same lock as the insert, so two
+    // concurrent bookings can never both take the same slot.
+
+    // Display-zone local times, conflicts allowed (the GUI asks the user first)
+    public static Event create(String title, String description, LocalDateTime start, LocalDateTime end) {
+        return create(title, description, ZoneCache.toEpochMillis(start), ZoneCache.toEpochMillis(end),
+                ZoneCache.DISPLAY_ZONE, true);
+    }
+
+    // allowConflict=false throws ConflictException instead of double-booking
+    public static Event create(String title, String description, long start, long end, ZoneId zone,
+            boolean allowConflict) {
+        writeLock.lock();
+        try {
+            return FileManager.withWriteLock(() -> {
+                Snapshot s = fresh();
+                if (!allowConflict)
+                    checkFree(s, start, end, -1);
+                int id = Math.max(s.nextId, ArchiveManager.maxId() + 1);
+                Event event = new Event(id, title, description, start, end, zone);
+                Snapshot next = new Snapshot(s.version + 1, s.generation, s.byId.put(id, event),
+                        s.byTime.insert(event), touch(s.monthVersions, event), id + 1);
+                FileManager.appendEvent(event);
+                publish(next);
+                return event;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Returns the updated event, or null if the id does not exist
+    public static Event update(int id, String title, String description, LocalDateTime start, LocalDateTime end) {
+        return update(id, title, description, ZoneCache.toEpochMillis(start), ZoneCache.toEpochMillis(end),
+                ZoneCache.DISPLAY_ZONE, true);
+    }
+
+    public static Event update(int id, String title, String description, long start, long end, ZoneId zone,
+            boolean allowConflict) {
+        writeLock.lock();
+        try {
+            return FileManager.withWriteLock(() -> {
+                Snapshot s = fresh();
+                Event old = s.get(id);
+                if (old == null)
+                    return null;
+                if (!allowConflict)
+                    checkFree(s, start, end, id);
+                Event event = new Event(id, title, description, start, end, zone); // Keep original ID
+                Snapshot next = new Snapshot(s.version + 1, s.generation, s.byId.put(id, event),
+                        s.byTime.remove(old).insert(event), touch(touch(s.monthVersions, old), event), s.nextId);
+                FileManager.saveEvents(next);
+                publish(next);
+                return event;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public static boolean delete(int id) {
+        writeLock.lock();
+        try {
+            return FileManager.withWriteLock(() -> {
+                Snapshot s = fresh();
+                Event old = s.get(id);
+                if (old == null)
+                    return false;
+                Snapshot next = new Snapshot(s.version + 1, s.generation, s.byId.remove(id), s.byTime.remove(old),
+                        touch(s.monthVersions, old), s.nextId);
+                FileManager.saveEvents(next); // Rewrite the file
+                publish(next);
+                return true;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Feature: Archive Past Events
+    // Moves events that ended before the cutoff into a compressed archive segment and
+    // drops them from the hot set. The segment is fully written before events.csv is
+    // rewritten, so a failure leaves the events where they were.
+    // Returns the number of archived events, or -1 on failure.
+
+    public static int archiveBefore(long cutoff) {
+        writeLock.lock();
+        try {
+            return FileManager.withWriteLock(() -> {
+                Snapshot s = fresh();
+                List<Event> old = new ArrayList<>();
+                for (Event e : s.byTime) {
+                    if (e.getStartMillis() >= cutoff)
+                        break; // Sorted by start: the rest are newer
+                    if (e.getEndMillis() <= cutoff)
+                        old.add(e);
+                }
+                if (old.isEmpty())
+                    return 0;
+                if (!ArchiveManager.writeSegment(old))
+                    return -1;
+
+                PersistentIntMap<Event> byId = s.byId;
+                PersistentEventTree byTime = s.byTime;
+                for (Event e : old) {
+                    byId = byId.remove(e.getId());
+                    byTime = byTime.remove(e);
+                }
+                // Month counters stay as they are: range queries still return these events
+                Snapshot next = new Snapshot(s.version + 1, s.generation, byId, byTime, s.monthVersions, s.nextId);
+                try {
+                    FileManager.saveEvents(next);
+                } catch (IOException e) {
+                    // The segment is written, so the events are archived; their copies still in
+                    // the file are skipped by reload and dropped by the next successful rewrite
+                    reload();
+                    throw e;
+                }
+                publish(next);
+                return old.size();
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+            return -1;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Negative days would move future events into the read-only archive
+    public static int archiveOlderThanDays(int days) {
+        if (days < 0)
+            throw new IllegalArgumentException("Days must be 0 or more: " + days);
+        return archiveBefore(ZoneCache.toEpochMillis(LocalDate.now(ZoneCache.DISPLAY_ZONE).minusDays(days).atStartOfDay()));
+    }
+
+    // Helpers
+
+    // Snapshot to write against (caller holds both locks). Writing from a copy that is
+    // older than the file would reuse ids taken by another process or erase its rows.
+    private static Snapshot fresh() {
+        if (current == null || !FileManager.fileStamp().equals(fileStamp))
+            reload();
+        return current;
+    }
+
+    private static void publish(Snapshot next) {
+        fileStamp = FileManager.fileStamp(); // Our own write is not an outside change
+        current = next;
+    }
+
+    private static void checkFree(Snapshot s, long start, long end, int ignoreId) {
+        Event conflict = s.findConflict(start, end, ignoreId);
+        if (conflict != null)
+            throw new ConflictException(conflict);
+    }
+
+    private static int monthKey(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    // Bumps the counter of every month the event spans
+    private static PersistentIntMap<Long> touch(PersistentIntMap<Long> versions, Event event) {
+        YearMonth last = YearMonth.from(event.getEndDateTime());
+        for (YearMonth m = YearMonth.from(event.getStartDateTime()); !m.isAfter(last); m = m.plusMonths(1)) {
+            Long count = versions.get(monthKey(m));
+            versions = versions.put(monthKey(m), count == null ? 1L : count + 1);
+        }
+        return versions;
+    }
+
+    // Thrown by the checked write methods when the slot is already taken
+    public static class ConflictException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private final transient Event conflict; // Events are not Serializable
+
+        public ConflictException(Event conflict) {
+            super("Overlaps with event [" + conflict.getTitle() + "]");
+            this.conflict = conflict;
+        }
+
+        public Event getConflict() {
+            return conflict;
+        }
+    }
+}
@@ -1,82 +1,240 @@
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.*; // Required for file copy operations
-import java.time.LocalDateTime;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class FileManager {
 
     // File path constants
-    private static final String FILE_PATH = "events.csv"; // Main data file
-    private static final String BACKUP_PATH = "events_backup.csv"; // Backup file
+    // Can be overridden with -Dcalendar.file=... (e.g. for cron jobs on another calendar)
+    static final String FILE_PATH = System.getProperty("calendar.file", "events.csv"); // Main data file
+    private static final String BACKUP_PATH = FILE_PATH.replaceAll("\\.csv$", "") + "_backup.csv"; // Backup file
+    private static final Path LOCK_PATH = Paths.get(FILE_PATH + ".lock"); // Held while writing
+
+    private static final ReentrantLock processLock = new ReentrantLock();
 
     // Core Function: Load Events from CSV
 
     public static List<Event> loadEvents() {
         List<Event> events = new ArrayList<>();
-        File file = new File(FILE_PATH);
+        forEachEvent(events::add);
+        return events;
+    }
+
+    // Core Function: Stream Events from CSV
+    // Hands each event to the consumer as soon as its line is parsed, so callers
+    // that only print or count never hold the whole file in memory.
 
-        // If file doesn't exist, return an empty list
+    public static void forEachEvent(Consumer<Event> action) {
+        forEachEvent(FILE_PATH, action);
+    }
+
+    public static void forEachEvent(String path, Consumer<Event> action) {
+        File file = new File(path);
+
+        // If file doesn't exist, there is nothing to read
         if (!file.exists()) {
-            return events;
+            return;
         }
 
         try (BufferedReader br = new BufferedReader(new FileReader(file))) {
             String line;
             while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 5) { // Ensure data integrity
-                    int id = Integer.parseInt(parts[0]);
-                    String title = parts[1].replace("|", ","); // Restore commas
-                    String description = parts[2].replace("|", ",");
-                    LocalDateTime start = LocalDateTime.parse(parts[3], Event.FILE_FORMATTER);
-                    LocalDateTime end = LocalDateTime.parse(parts[4], Event.FILE_FORMATTER);
-
-                    events.add(new Event(id, title, description, start, end));
+                Event event = parseLine(line);
+                if (event != null) {
+                    action.accept(event);
                 }
             }
-        } catch (Exception e) {
+        } catch (IOException e) {
             e.printStackTrace();
             System.out.println("Error loading events: " + e.getMessage());
         }
-        return events;
+    }
+
+    // Helper: Parse one CSV line, returns null for headers or broken lines
+    public static Event parseLine(String line) {
+        String[] parts = line.split(",");
+        if (parts.length < 5) { // Ensure data integrity
+            return null;
+        }
+        try {
+            int id = Integer.parseInt(parts[0]);
+            String title = parts[1].replace("|", ","); // Restore commas
+            String description = parts[2].replace("|", ",");
+            // Zone column is optional: older files hold display-zone local times
+            ZoneId zone = parts.length >= 6 ? ZoneId.of(parts[5].trim()) : ZoneCache.DISPLAY_ZONE;
+            long start = ZoneCache.parse(parts[3], zone);
+            long end = ZoneCache.parse(parts[4], zone);
+            return new Event(id, title, description, start, end, zone);
+        } catch (RuntimeException e) {
+            return null; // Skip header rows and corrupted entries
+        }
     }
 
     // Core Function: Save All Events (Overwrite)
+    // Writes a temp file and atomically moves it over the data file, so a crash or a full
+    // disk half way through leaves the old calendar in place. Throws if anything failed.
+
+    public static void saveEvents(Iterable<Event> events) throws IOException {
+        Path temp = Paths.get(FILE_PATH + ".tmp");
+        try {
+            saveEvents(temp.toString(), events);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, Paths.get(FILE_PATH), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
 
-    public static void saveEvents(List<Event> events) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(FILE_PATH))) {
+    // Throws if any write fails, so callers never mistake a short file for a complete one
+    public static void saveEvents(String path, Iterable<Event> events) throws IOException {
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(path))) {
             for (Event event : events) {
                 bw.write(event.toCSV());
                 bw.newLine();
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
     }
 
     // Helper: Append a Single Event
 
-    public static void appendEvent(Event event) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(FILE_PATH, true))) {
-            bw.write(event.toCSV());
-            bw.newLine();
+    // A failed write is cut back off, so the next append never runs into half a line
+
+    public static void appendEvent(Event event) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap((event.toCSV() + System.lineSeparator()).getBytes());
+        try (FileChannel channel = FileChannel.open(Paths.get(FILE_PATH),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long size = channel.size();
+            try {
+                while (line.hasRemaining())
+                    channel.write(line);
+            } catch (IOException e) {
+                channel.truncate(size);
+                throw e;
+            }
+        }
+    }
+
+    // Helper: Cross-Process Write Lock
+    // The GUI, the API server and CLI jobs may all write the same file. Every writer runs
+    // under an OS lock on a sidecar file, so one process's check-then-write never
+    // interleaves with another's import or rewrite. Nested calls reuse the held lock.
+
+    public interface FileAction<T> {
+        T run() throws IOException;
+    }
+
+    public static <T> T withWriteLock(FileAction<T> action) throws IOException {
+        processLock.lock(); // File locks are per process, so threads queue here first
+        try {
+            if (processLock.getHoldCount() > 1)
+                return action.run();
+            try (FileChannel channel = FileChannel.open(LOCK_PATH, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.lock(); // Released when the channel is closed
+                return action.run();
+            }
+        } finally {
+            processLock.unlock();
+        }
+    }
+
+    // Helper: File Version
+    // Changes whenever the file is appended to, rewritten or replaced
+
+    public static String fileStamp() {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(Paths.get(FILE_PATH), BasicFileAttributes.class);
+            return attrs.size() + "/" + attrs.lastModifiedTime() + "/" + attrs.fileKey();
         } catch (IOException e) {
-            e.printStackTrace();
+            return "missing";
         }
     }
 
     // Helper: Generate Next Available ID
 
     public static int getNextId() {
-        int maxId = 0;
-        List<Event> events = loadEvents();
-        for (Event e : events) {
-            if (e.getId() > maxId) {
-                maxId = e.getId();
-            }
+        int[] maxId = { ArchiveManager.maxId() }; // Archived ids stay taken
+        forEachEvent(e -> maxId[0] = Math.max(maxId[0], e.getId()));
+        return maxId[0] + 1;
+    }
+
+    // New Feature: Import Events from another CSV
+    // New IDs are assigned so imported rows never clash with existing ones.
+    // Returns the number of imported events, or -1 on failure (the file is then left as it was).
+
+    public static int importEvents(String sourcePath) {
+        if (!Files.exists(Paths.get(sourcePath))) {
+            System.out.println("Import file not found: " + sourcePath);
+            return -1;
+        }
+        try {
+            return withWriteLock(() -> {
+                int[] next = { getNextId() }; // Read under the lock, so no other writer can take these ids
+                int firstId = next[0];
+                try (FileChannel channel = FileChannel.open(Paths.get(FILE_PATH),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    long size = channel.size(); // Cut back to this if any line fails, like appendEvent
+                    PrintWriter pw = new PrintWriter(new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel))));
+                    try {
+                        forEachEvent(sourcePath, e -> pw.println(new Event(next[0]++, e.getTitle(), e.getDescription(),
+                                e.getStartMillis(), e.getEndMillis(), e.getZone()).toCSV()));
+                        pw.flush();
+                        if (pw.checkError())
+                            throw new IOException("write to " + FILE_PATH + " failed");
+                    } catch (IOException | RuntimeException e) {
+                        channel.truncate(size);
+                        throw e;
+                    }
+                }
+                return next[0] - firstId;
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+            return -1;
         }
-        return maxId + 1;
+    }
+
+    // New Feature: Compact Data File
+    // Drops broken lines and duplicate IDs (last write wins), then rewrites the
+    // file sorted by start time. Writes to a temp file first so a crash never
+    // leaves a half-written calendar. Returns the number of lines removed, or -1.
+
+    public static int compactEvents() {
+        Path source = Paths.get(FILE_PATH);
+        if (!Files.exists(source)) {
+            return 0;
+        }
+        try {
+            return withWriteLock(() -> compact(source));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    private static int compact(Path source) throws IOException {
+        long lineCount;
+        try (Stream<String> lines = Files.lines(source)) {
+            lineCount = lines.count();
+        }
+
+        Map<Integer, Event> byId = new LinkedHashMap<>();
+        forEachEvent(e -> byId.put(e.getId(), e));
+        List<Event> events = new ArrayList<>(byId.values());
+        events.sort(null);
+
+        saveEvents(events); // The original file is left untouched if this fails
+        return (int) (lineCount - events.size());
     }
 
     // New Feature: Backup Data
@@ -117,7 +275,7 @@ public class FileManager {
             }
 
             // Perform restore (Overwrite current data with backup)
-            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+            withWriteLock(() -> Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING));
             System.out.println("Restore successful from: " + source.toAbsolutePath());
             return true;
 
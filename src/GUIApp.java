@@ -1,15 +1,18 @@
 import javax.swing.*;
+import javax.swing.border.Border;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.io.UncheckedIOException;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -17,13 +20,31 @@ import java.util.stream.Collectors;
 public class GUIApp extends JFrame {
 
     // Core Data
-    private List<Event> allEvents;
+    private EventStore.Snapshot allEvents; // Immutable view, replaced after every write
     private YearMonth currentMonth;
 
+    // Month grid render state: 42 cells built once and reused for every month
+    private static final int GRID_CELLS = 42;
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("MMMM yyyy",
+            java.util.Locale.ENGLISH);
+    private static final Color EVENT_COLOR = new Color(33, 150, 243);
+    private static final Color[] BUSY_BACKGROUNDS = { Color.WHITE, new Color(240, 248, 255),
+            new Color(222, 238, 252), new Color(200, 226, 250) }; // Indexed by DaySummary.busyLevel
+    private static final Border NORMAL_BORDER = BorderFactory.createLineBorder(Color.LIGHT_GRAY);
+    private static final Border TODAY_BORDER = BorderFactory.createLineBorder(Color.RED, 2);
+    private static final String[] DAY_LABELS = new String[32]; // " 1" .. " 31"
+    static {
+        for (int i = 1; i < DAY_LABELS.length; i++)
+            DAY_LABELS[i] = " " + i;
+    }
+    private final DayCell[] dayCells = new DayCell[GRID_CELLS];
+    private final transient MonthRenderCache renderCache = new MonthRenderCache(); // Rebuilt on demand
+
     // UI Components
     private JPanel calendarGrid;
     private JLabel monthLabel;
     private DefaultTableModel listTableModel;
+    private JTextField searchField;
 
     // Constructor: Entry Point
     public GUIApp() {
@@ -35,7 +56,7 @@ public class GUIApp extends JFrame {
 
         // 2. Load Data
         refreshData();
-        currentMonth = YearMonth.now();
+        currentMonth = YearMonth.now(ZoneCache.DISPLAY_ZONE);
 
         // 3. Setup Menu Bar (Basic Requirement)
         setupMenuBar();
@@ -53,6 +74,16 @@ public class GUIApp extends JFrame {
         // Tab 3: Statistics Dashboard (Additional Feature)
         tabbedPane.addTab(" Statistics", createStatsTab());
 
+        // Pick up changes made outside the app when a tab is opened; month paging
+        // then only reads the snapshot taken here or by the last write
+        tabbedPane.addChangeListener(e -> {
+            refreshData();
+            if (tabbedPane.getSelectedIndex() == 0)
+                refreshCalendarGrid();
+            else if (tabbedPane.getSelectedIndex() == 1)
+                loadTable(searchField.getText());
+        });
+
         add(tabbedPane);
 
         // 5. Check Reminders on Launch (Additional Feature)
@@ -69,6 +100,7 @@ public class GUIApp extends JFrame {
         JMenu dataMenu = new JMenu(" Data Management");
         JMenuItem backupItem = new JMenuItem("Backup Data");
         JMenuItem restoreItem = new JMenuItem("Restore Data");
+        JMenuItem archiveItem = new JMenuItem("Archive Old Events");
 
         // Logic: Backup
         backupItem.addActionListener(e -> {
@@ -86,7 +118,9 @@ public class GUIApp extends JFrame {
             if (confirm == JOptionPane.YES_OPTION) {
                 boolean success = FileManager.restoreEvents();
                 if (success) {
-                    refreshData(); // Reload data into memory
+                    EventStore.reload(); // Reload data into memory
+                    refreshData();
+                    renderCache.clear(); // Every month may have changed
                     refreshCalendarGrid(); // Refresh UI
                     loadTable(null);
                     JOptionPane.showMessageDialog(this, " Data restored successfully!");
@@ -96,8 +130,28 @@ public class GUIApp extends JFrame {
             }
         });
 
+        // Logic: Archive (moves past events to compressed storage, still searchable)
+        archiveItem.addActionListener(e -> {
+            int days = ArchiveManager.DEFAULT_HORIZON_DAYS;
+            int confirm = JOptionPane.showConfirmDialog(this,
+                    " Move events that ended more than " + days + " days ago to the archive?", "Confirm Archive",
+                    JOptionPane.YES_NO_OPTION);
+            if (confirm == JOptionPane.YES_OPTION) {
+                int archived = EventStore.archiveOlderThanDays(days);
+                if (archived >= 0) {
+                    refreshData();
+                    refreshCalendarGrid();
+                    loadTable(null);
+                    JOptionPane.showMessageDialog(this, " Archived " + archived + " events.");
+                } else {
+                    JOptionPane.showMessageDialog(this, " Archive failed!", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        });
+
         dataMenu.add(backupItem);
         dataMenu.add(restoreItem);
+        dataMenu.add(archiveItem);
         menuBar.add(dataMenu);
 
         // Help Menu
@@ -144,6 +198,10 @@ public class GUIApp extends JFrame {
 
         // Calendar Grid
         calendarGrid = new JPanel(new GridLayout(0, 7, 2, 2));
+        for (int i = 0; i < GRID_CELLS; i++) {
+            dayCells[i] = new DayCell();
+            calendarGrid.add(dayCells[i]);
+        }
         JPanel center = new JPanel(new BorderLayout());
         center.add(header, BorderLayout.NORTH);
         center.add(calendarGrid, BorderLayout.CENTER);
@@ -155,39 +213,33 @@ public class GUIApp extends JFrame {
     }
 
     // ✅ FIXED: Refresh the calendar grid cells with Locale Fix
+    // Reuses the 42 pooled cells and the cached month summary, so paging
+    // through months only updates labels and colors.
     private void refreshCalendarGrid() {
         // Safety check
         if (currentMonth == null)
-            currentMonth = YearMonth.now();
+            currentMonth = YearMonth.now(ZoneCache.DISPLAY_ZONE);
 
         // 1. Fix: Force English Locale and Black Color
         monthLabel.setForeground(Color.BLACK);
-        monthLabel.setText(currentMonth.format(DateTimeFormatter.ofPattern("MMMM yyyy", java.util.Locale.ENGLISH)));
+        monthLabel.setText(currentMonth.format(MONTH_FORMATTER));
 
-        calendarGrid.removeAll();
-
-        LocalDate firstDay = currentMonth.atDay(1);
-        int startOffset = firstDay.getDayOfWeek().getValue() % 7; // Sunday is 0
+        MonthRenderCache.DaySummary[] summaries = renderCache.get(currentMonth, allEvents);
+        int startOffset = currentMonth.atDay(1).getDayOfWeek().getValue() % 7; // Sunday is 0
         int daysInMonth = currentMonth.lengthOfMonth();
-
-        // Fill empty slots for previous month
-        for (int i = 0; i < startOffset; i++)
-            calendarGrid.add(new JLabel(""));
-
-        // Fill actual days
-        for (int i = 1; i <= daysInMonth; i++) {
-            LocalDate date = currentMonth.atDay(i);
-            calendarGrid.add(createDayCell(date));
-        }
-
-        // Fill empty slots for next month to maintain grid shape
-        int total = startOffset + daysInMonth;
-        while (total < 42) {
-            calendarGrid.add(new JLabel(""));
-            total++;
+        LocalDate today = LocalDate.now(ZoneCache.DISPLAY_ZONE);
+
+        // Leading/trailing cells stay blank to maintain grid shape
+        for (int i = 0; i < GRID_CELLS; i++) {
+            int day = i - startOffset + 1;
+            if (day < 1 || day > daysInMonth) {
+                dayCells[i].clear();
+            } else {
+                LocalDate date = currentMonth.atDay(day);
+                dayCells[i].show(date, summaries[day - 1], date.equals(today));
+            }
         }
 
-        calendarGrid.revalidate();
         calendarGrid.repaint();
 
         // 2. Fix: Force refresh parent container
@@ -197,35 +249,47 @@ public class GUIApp extends JFrame {
         }
     }
 
-    // Create individual day cell
-    private JPanel createDayCell(LocalDate date) {
-        JPanel cell = new JPanel(new BorderLayout());
-        cell.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
-        cell.setBackground(Color.WHITE);
-
-        JLabel dayNum = new JLabel(" " + date.getDayOfMonth());
-        cell.add(dayNum, BorderLayout.NORTH);
-
-        // Check for events on this day
-        long count = allEvents.stream().filter(e -> e.getStartDateTime().toLocalDate().equals(date)).count();
-        if (count > 0) {
-            JLabel dot = new JLabel(" ● " + count + " events");
-            dot.setForeground(new Color(33, 150, 243));
-            cell.add(dot, BorderLayout.CENTER);
-            cell.setBackground(new Color(240, 248, 255)); // Highlight background
+    // One pooled day cell; its click listener reads whatever date it currently shows
+    private class DayCell extends JPanel {
+        private static final long serialVersionUID = 1L;
+        private final JLabel dayNum = new JLabel();
+        private final JLabel dot = new JLabel();
+        private LocalDate date;
+
+        DayCell() {
+            super(new BorderLayout());
+            dot.setForeground(EVENT_COLOR);
+            add(dayNum, BorderLayout.NORTH);
+            add(dot, BorderLayout.CENTER);
+
+            // Click listener to view details
+            addMouseListener(new MouseAdapter() {
+                public void mouseClicked(MouseEvent e) {
+                    if (date != null)
+                        showDayDetail(date);
+                }
+            });
+            clear();
         }
 
-        // Highlight today's date
-        if (date.equals(LocalDate.now()))
-            cell.setBorder(BorderFactory.createLineBorder(Color.RED, 2));
+        void show(LocalDate date, MonthRenderCache.DaySummary summary, boolean isToday) {
+            this.date = date;
+            setOpaque(true);
+            dayNum.setText(DAY_LABELS[date.getDayOfMonth()]);
+            dot.setText(summary.label);
+            setToolTipText(summary.tooltip);
+            setBackground(BUSY_BACKGROUNDS[summary.busyLevel]); // Highlight busy days
+            setBorder(isToday ? TODAY_BORDER : NORMAL_BORDER); // Highlight today's date
+        }
 
-        // Click listener to view details
-        cell.addMouseListener(new MouseAdapter() {
-            public void mouseClicked(MouseEvent e) {
-                showDayDetail(date);
-            }
-        });
-        return cell;
+        void clear() {
+            date = null;
+            setOpaque(false);
+            dayNum.setText("");
+            dot.setText("");
+            setToolTipText(null);
+            setBorder(null);
+        }
     }
 
     // Basic Requirement: Manage Events (List, Search, Edit, Delete)
@@ -235,7 +299,7 @@ public class GUIApp extends JFrame {
 
         // Top: Search Bar
         JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        JTextField searchField = new JTextField(20);
+        searchField = new JTextField(20);
         JButton searchBtn = new JButton(" Search");
         JButton resetBtn = new JButton("Reset");
         top.add(new JLabel("Keyword:"));
@@ -278,7 +342,13 @@ public class GUIApp extends JFrame {
 
             if (JOptionPane.showConfirmDialog(this, "Delete event " + id + "?", "Confirm",
                     JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
-                SchedulerLogic.deleteEvent(id); // Call logic layer
+                renderCache.invalidate(findEvent(id));
+                try {
+                    SchedulerLogic.deleteEvent(id); // Call logic layer
+                } catch (UncheckedIOException ex) {
+                    JOptionPane.showMessageDialog(this, " Delete failed: " + ex.getCause().getMessage(), "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                }
                 refreshData();
                 loadTable(null);
                 refreshCalendarGrid();
@@ -295,7 +365,7 @@ public class GUIApp extends JFrame {
             int id = (int) table.getValueAt(row, 0);
 
             // Find the specific Event object
-            Event target = allEvents.stream().filter(ev -> ev.getId() == id).findFirst().orElse(null);
+            Event target = findEvent(id);
             if (target != null) {
                 showEditDialog(target); // Open Edit Dialog
             }
@@ -310,6 +380,7 @@ public class GUIApp extends JFrame {
 
     // Helper to load data into the table with optional filtering
     private void loadTable(String keyword) {
+        refreshData();
         listTableModel.setRowCount(0);
         for (Event e : allEvents) {
             if (keyword == null || keyword.isEmpty() || e.getTitle().toLowerCase().contains(keyword.toLowerCase())) {
@@ -332,7 +403,8 @@ public class GUIApp extends JFrame {
         d.setLocationRelativeTo(this);
 
         DefaultTableModel m = new DefaultTableModel(new String[] { "Time", "Title" }, 0);
-        allEvents.stream().filter(e -> e.getStartDateTime().toLocalDate().equals(date))
+        EventStore.range(date.atStartOfDay(), date.plusDays(1).atStartOfDay()).stream() // Includes archived days
+                .filter(e -> e.getStartDateTime().toLocalDate().equals(date))
                 .forEach(e -> m.addRow(new String[] { e.getStartDateTime().format(DateTimeFormatter.ofPattern("HH:mm")),
                         e.getTitle() }));
 
@@ -386,6 +458,7 @@ public class GUIApp extends JFrame {
 
         saveBtn.addActionListener(e -> {
             try {
+                refreshData(); // Check conflicts against the latest file
                 LocalDateTime s = LocalDateTime.parse(sF.getText(), Event.PRINT_FORMATTER);
                 LocalDateTime en = LocalDateTime.parse(eF.getText(), Event.PRINT_FORMATTER);
 
@@ -402,14 +475,14 @@ public class GUIApp extends JFrame {
                 }
 
                 if (isEdit) {
-                    // Update Logic: Delete old, add new (Simulating Update)
-                    SchedulerLogic.deleteEvent(eventToEdit.getId());
-                    Event newEv = new Event(eventToEdit.getId(), tF.getText(), dF.getText(), s, en); // Keep original ID
-                    FileManager.appendEvent(newEv);
+                    // Update Logic (keeps original ID)
+                    Event newEv = EventStore.update(eventToEdit.getId(), tF.getText(), dF.getText(), s, en);
+                    renderCache.invalidate(eventToEdit);
+                    renderCache.invalidate(newEv);
                 } else {
                     // Create Logic
-                    Event newEv = new Event(FileManager.getNextId(), tF.getText(), dF.getText(), s, en);
-                    FileManager.appendEvent(newEv);
+                    Event newEv = EventStore.create(tF.getText(), dF.getText(), s, en);
+                    renderCache.invalidate(newEv);
                 }
 
                 // Refresh everything
@@ -419,6 +492,9 @@ public class GUIApp extends JFrame {
                 JOptionPane.showMessageDialog(d, "Saved Successfully!");
                 d.dispose();
 
+            } catch (UncheckedIOException ex) {
+                JOptionPane.showMessageDialog(d, " Save failed: " + ex.getCause().getMessage(), "Error",
+                        JOptionPane.ERROR_MESSAGE);
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(d, "Invalid Date Format! Please use yyyy-MM-dd HH:mm");
             }
@@ -429,14 +505,13 @@ public class GUIApp extends JFrame {
     // Additional Feature 1: Reminders (Notifications on Startup)
 
     private void checkRemindersOnLaunch() {
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime now = LocalDateTime.now(ZoneCache.DISPLAY_ZONE);
         LocalDateTime next24h = now.plusHours(24);
 
         // Filter events happening in the next 24 hours
-        List<Event> upcoming = allEvents.stream()
-                .filter(e -> e.getStartDateTime().isAfter(now) && e.getStartDateTime().isBefore(next24h))
-                .sorted()
-                .collect(Collectors.toList());
+        List<Event> upcoming = allEvents.range(now, next24h).stream()
+                .filter(e -> e.getStartDateTime().isAfter(now))
+                .collect(Collectors.toList()); // Already in start order
 
         if (!upcoming.isEmpty()) {
             StringBuilder msg = new StringBuilder(" Reminder: You have " + upcoming.size() + " upcoming events!\n\n");
@@ -460,18 +535,24 @@ public class GUIApp extends JFrame {
         Runnable refreshStats = () -> {
             panel.removeAll();
 
-            // Stat 1: Total Events
-            panel.add(createStatCard("Total Events", String.valueOf(allEvents.size()), new Color(33, 150, 243)));
+            // Stat 1: Total Events (archived ones are counted from the archive index)
+            panel.add(createStatCard("Total Events", String.valueOf(allEvents.size() + ArchiveManager.count()),
+                    new Color(33, 150, 243)));
 
-            // Stat 2: Events This Month
-            long thisMonth = allEvents.stream()
-                    .filter(e -> YearMonth.from(e.getStartDateTime()).equals(YearMonth.now()))
+            // Stat 2: Events This Month (in the zone events are displayed in, archive included)
+            YearMonth month = YearMonth.now(ZoneCache.DISPLAY_ZONE);
+            long monthStart = ZoneCache.toEpochMillis(month.atDay(1).atStartOfDay());
+            long thisMonth = EventStore.range(allEvents, monthStart,
+                    ZoneCache.toEpochMillis(month.plusMonths(1).atDay(1).atStartOfDay())).stream()
+                    .filter(e -> e.getStartMillis() >= monthStart)
                     .count();
             panel.add(createStatCard("This Month", String.valueOf(thisMonth), new Color(76, 175, 80)));
 
             // Stat 3: Busiest Day of Week
             Map<DayOfWeek, Long> counts = allEvents.stream()
-                    .collect(Collectors.groupingBy(e -> e.getStartDateTime().getDayOfWeek(), Collectors.counting()));
+                    .collect(Collectors.groupingBy(e -> e.getStartDateTime().getDayOfWeek(),
+                            () -> new EnumMap<>(DayOfWeek.class), Collectors.counting()));
+            ArchiveManager.forEach(e -> counts.merge(e.getStartDateTime().getDayOfWeek(), 1L, Long::sum));
             DayOfWeek busiest = counts.entrySet().stream()
                     .max(Map.Entry.comparingByValue())
                     .map(Map.Entry::getKey)
@@ -479,9 +560,10 @@ public class GUIApp extends JFrame {
             panel.add(
                     createStatCard("Busiest Day", busiest == null ? "-" : busiest.toString(), new Color(255, 152, 0)));
 
-            // Stat 4: Upcoming Events
-            long future = allEvents.stream()
-                    .filter(e -> e.getStartDateTime().isAfter(LocalDateTime.now()))
+            // Stat 4: Upcoming Events (archive included, like the other cards)
+            long now = System.currentTimeMillis();
+            long future = EventStore.range(allEvents, now, Long.MAX_VALUE).stream()
+                    .filter(e -> e.getStartMillis() > now)
                     .count();
             panel.add(createStatCard("Upcoming", String.valueOf(future), new Color(156, 39, 176)));
 
@@ -495,7 +577,9 @@ public class GUIApp extends JFrame {
         // Refresh Button
         JButton refreshBtn = new JButton("Refresh Statistics");
         refreshBtn.addActionListener(e -> {
+            EventStore.reload(); // Pick up changes made outside the app
             refreshData();
+            renderCache.clear(); // The file may have been changed outside the app
             refreshStats.run();
         });
 
@@ -527,19 +611,20 @@ public class GUIApp extends JFrame {
 
     // Check for time conflicts
     private boolean hasConflict(LocalDateTime start, LocalDateTime end, int ignoreId) {
-        for (Event e : allEvents) {
-            if (e.getId() == ignoreId)
-                continue; // Skip self
-            // Logic: (StartA < EndB) and (EndA > StartB) means overlap
-            if (start.isBefore(e.getEndDateTime()) && end.isAfter(e.getStartDateTime())) {
-                return true;
-            }
-        }
-        return false;
+        return allEvents.findConflict(start, end, ignoreId) != null; // ignoreId skips self
+    }
+
+    private Event findEvent(int id) {
+        return allEvents.get(id);
     }
 
+    // Picks up changes made by other processes (CLI imports, the API server); after a
+    // reload every month may differ, so the cached summaries are dropped too
     private void refreshData() {
-        allEvents = FileManager.loadEvents();
+        EventStore.Snapshot latest = EventStore.refresh();
+        if (allEvents != null && latest.generation != allEvents.generation)
+            renderCache.clear();
+        allEvents = latest;
     }
 
     // Main Method
@@ -0,0 +1,451 @@
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Soak / load harness: runs a mixed booking workload against the real store on a scratch
+// data file and reports latency percentiles, throughput, GC pauses and integrity checks.
+//
+//   java LoadTest [--threads N] [--virtual] [--write-ratio 0.1] [--events N] [--duration S] [--keep]
+//
+// Writers create, edit and delete (EventStore.create/update, SchedulerLogic.deleteEvent);
+// readers run keyword searches, month range queries and conflict checks.
+// Each writer only edits/deletes the events it owns, so the expected final state is exact
+// and any lost write, resurrected delete or duplicate id shows up in the checks.
+public class LoadTest {
+
+    private static final String[] WORDS = { "meeting", "gym", "review", "lunch", "standup", "doctor", "call",
+            "planning", "demo", "retro" };
+    private static final String[] OPS = { "create", "update", "delete", "search", "month", "conflict" };
+    private static final int CREATE = 0, UPDATE = 1, DELETE = 2, SEARCH = 3, MONTH = 4, CONFLICT = 5;
+    private static final LocalDate BASE = LocalDate.now(ZoneCache.DISPLAY_ZONE).withDayOfMonth(1);
+
+    private static int threads = Runtime.getRuntime().availableProcessors() * 2;
+    private static boolean virtual = false;
+    private static double writeRatio = 0.1;
+    private static int initialEvents = 10_000;
+    private static int durationSeconds = 30;
+    private static boolean keep = false;
+
+    // Integrity tracking: id -> title the store should end up with
+    private static final Map<Integer, String> expected = new ConcurrentHashMap<>();
+    private static final Set<Integer> everCreated = ConcurrentHashMap.newKeySet();
+    private static final AtomicLong duplicateIds = new AtomicLong();
+    private static final AtomicLong failedOps = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        if (!parseArgs(args)) {
+            System.err.println("Usage: java LoadTest [--threads N] [--virtual] [--write-ratio 0.0-1.0]"
+                    + " [--events N] [--duration seconds] [--keep]");
+            System.exit(2);
+        }
+
+        // Must happen before FileManager is loaded: the data file path is read once at class init
+        Path dir = Files.createTempDirectory("calendar-loadtest");
+        System.setProperty("calendar.file", dir.resolve("events.csv").toString());
+        System.setProperty("java.awt.headless", "true");
+
+        System.out.printf("Load test: %d %s threads, write ratio %.2f, %d initial events, %ds, data in %s%n",
+                threads, virtual ? "virtual" : "platform", writeRatio, initialEvents, durationSeconds, dir);
+
+        seed();
+        long loadStart = System.nanoTime();
+        EventStore.reload();
+        System.out.printf("Initial load: %.1f ms%n", (System.nanoTime() - loadStart) / 1e6);
+
+        GcMonitor gc = new GcMonitor();
+        Histogram[][] perThread = new Histogram[threads][];
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long runStart = System.nanoTime();
+
+        ExecutorService pool = virtual ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            pool.submit(() -> perThread[worker] = runWorker(worker, deadline));
+        }
+        pool.shutdown();
+        if (!pool.awaitTermination(durationSeconds + 300L, TimeUnit.SECONDS))
+            System.out.println("WARNING: workers did not finish in time");
+        double elapsed = (System.nanoTime() - runStart) / 1e9;
+        gc.stop();
+
+        report(perThread, elapsed, gc);
+        boolean ok = verify();
+
+        if (!keep)
+            deleteRecursively(dir);
+        System.exit(ok ? 0 : 1);
+    }
+
+    // Workload
+
+    private static Histogram[] runWorker(int worker, long deadline) {
+        Histogram[] hist = new Histogram[OPS.length];
+        for (int i = 0; i < hist.length; i++)
+            hist[i] = new Histogram();
+
+        // Events this writer may edit or delete
+        List<Integer> owned = new ArrayList<>();
+        for (int id : expected.keySet())
+            if (id % threads == worker)
+                owned.add(id);
+
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            int op;
+            if (rnd.nextDouble() < writeRatio)
+                op = owned.isEmpty() ? CREATE : rnd.nextInt(3); // create / update / delete
+            else
+                op = SEARCH + rnd.nextInt(3); // search / month / conflict
+
+            long start = System.nanoTime();
+            try {
+                switch (op) {
+                    case CREATE: {
+                        LocalDateTime s = randomStart(rnd);
+                        String title = title(rnd);
+                        Event e = EventStore.create(title, "load test", s, s.plusMinutes(30 + rnd.nextInt(90)));
+                        if (!everCreated.add(e.getId()))
+                            duplicateIds.incrementAndGet();
+                        expected.put(e.getId(), title);
+                        owned.add(e.getId());
+                        break;
+                    }
+                    case UPDATE: {
+                        int id = owned.get(rnd.nextInt(owned.size()));
+                        LocalDateTime s = randomStart(rnd);
+                        String title = title(rnd);
+                        if (EventStore.update(id, title, "edited", s, s.plusMinutes(60)) == null)
+                            failedOps.incrementAndGet(); // We own it, so it must exist
+                        else
+                            expected.put(id, title);
+                        break;
+                    }
+                    case DELETE: {
+                        int id = owned.remove(rnd.nextInt(owned.size()));
+                        if (!SchedulerLogic.deleteEvent(id))
+                            failedOps.incrementAndGet();
+                        expected.remove(id);
+                        break;
+                    }
+                    case SEARCH:
+                        EventStore.search(WORDS[rnd.nextInt(WORDS.length)]);
+                        break;
+                    case MONTH: {
+                        YearMonth m = YearMonth.from(BASE).plusMonths(rnd.nextInt(12));
+                        EventStore.range(m.atDay(1).atStartOfDay(), m.plusMonths(1).atDay(1).atStartOfDay());
+                        break;
+                    }
+                    case CONFLICT: {
+                        LocalDateTime s = randomStart(rnd);
+                        EventStore.findConflict(s, s.plusHours(1), -1);
+                        break;
+                    }
+                }
+            } catch (RuntimeException e) {
+                failedOps.incrementAndGet();
+            }
+            hist[op].record(System.nanoTime() - start);
+        }
+        return hist;
+    }
+
+    // Writes the initial data set straight to the scratch file
+    private static void seed() throws IOException {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        List<Event> events = new ArrayList<>(initialEvents);
+        for (int id = 1; id <= initialEvents; id++) {
+            LocalDateTime s = randomStart(rnd);
+            String title = title(rnd);
+            events.add(new Event(id, title, "seed", s, s.plusMinutes(30 + rnd.nextInt(90))));
+            expected.put(id, title);
+            everCreated.add(id);
+        }
+        FileManager.saveEvents(events);
+    }
+
+    private static LocalDateTime randomStart(ThreadLocalRandom rnd) {
+        return BASE.atStartOfDay().plusMinutes(15L * rnd.nextInt(365 * 24 * 4)); // Within a year, on 15 min steps
+    }
+
+    private static String title(ThreadLocalRandom rnd) {
+        return WORDS[rnd.nextInt(WORDS.length)] + " " + rnd.nextInt(100_000);
+    }
+
+    // Reporting
+
+    private static void report(Histogram[][] perThread, double elapsed, GcMonitor gc) {
+        Histogram total = new Histogram();
+        System.out.println();
+        System.out.printf("%-9s %10s %10s %10s %10s %10s %10s%n", "op", "count", "ops/s", "p50 ms", "p99 ms",
+                "p999 ms", "max ms");
+        for (int op = 0; op < OPS.length; op++) {
+            Histogram merged = new Histogram();
+            for (Histogram[] h : perThread)
+                if (h != null)
+                    merged.add(h[op]);
+            total.add(merged);
+            printRow(OPS[op], merged, elapsed);
+        }
+        printRow("all", total, elapsed);
+
+        System.out.println();
+        System.out.printf("GC: %d pauses, %.1f ms total, %.1f ms max pause%n", gc.count(), gc.totalMillis(),
+                gc.maxMillis());
+        if (gc.cycles() > 0)
+            System.out.printf("GC: %d concurrent cycles, %.1f ms total (not pauses)%n", gc.cycles(), gc.cycleMillis());
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans())
+            System.out.printf("    %-25s %6d collections %8d ms%s%n", bean.getName(), bean.getCollectionCount(),
+                    bean.getCollectionTime(), bean.getName().endsWith("Cycles") ? "  (concurrent)" : "");
+    }
+
+    private static void printRow(String name, Histogram h, double elapsed) {
+        System.out.printf("%-9s %10d %10.0f %10.3f %10.3f %10.3f %10.3f%n", name, h.count(), h.count() / elapsed,
+                h.percentile(50) / 1e6, h.percentile(99) / 1e6, h.percentile(99.9) / 1e6, h.max() / 1e6);
+    }
+
+    // Integrity Checks
+
+    private static boolean verify() {
+        List<String> problems = new ArrayList<>();
+
+        // 1. Live snapshot: unique ids, index sizes agree
+        EventStore.Snapshot live = EventStore.snapshot();
+        checkUnique("snapshot", live, live.size(), problems);
+        compare("snapshot", live, problems);
+
+        // 2. What actually reached the disk
+        List<Event> onDisk = FileManager.loadEvents();
+        checkUnique("events.csv", onDisk, onDisk.size(), problems);
+        EventStore.reload();
+        compare("reloaded file", EventStore.snapshot(), problems);
+
+        if (duplicateIds.get() > 0)
+            problems.add(duplicateIds.get() + " id(s) were handed out twice");
+        if (failedOps.get() > 0)
+            problems.add(failedOps.get() + " operation(s) failed");
+
+        System.out.println();
+        System.out.println("Integrity: " + expected.size() + " expected events, " + onDisk.size() + " on disk");
+        if (problems.isEmpty()) {
+            System.out.println("Integrity: PASS (no duplicate ids, no lost writes, no resurrected deletes)");
+            return true;
+        }
+        problems.stream().limit(20).forEach(p -> System.out.println("Integrity: FAIL " + p));
+        return false;
+    }
+
+    private static void checkUnique(String where, Iterable<Event> events, int size, List<String> problems) {
+        Set<Integer> seen = new HashSet<>();
+        int count = 0;
+        for (Event e : events) {
+            count++;
+            if (!seen.add(e.getId()))
+                problems.add(where + ": duplicate id " + e.getId());
+        }
+        if (count != size)
+            problems.add(where + ": iterated " + count + " events but size is " + size);
+    }
+
+    private static void compare(String where, EventStore.Snapshot snapshot, List<String> problems) {
+        Map<Integer, String> actual = new HashMap<>();
+        for (Event e : snapshot)
+            actual.put(e.getId(), e.getTitle());
+        for (Map.Entry<Integer, String> e : expected.entrySet()) {
+            String title = actual.get(e.getKey());
+            if (title == null)
+                problems.add(where + ": lost event " + e.getKey());
+            else if (!title.equals(e.getValue()))
+                problems.add(where + ": lost update on " + e.getKey() + " (\"" + title + "\" != \"" + e.getValue()
+                        + "\")");
+        }
+        for (int id : actual.keySet())
+            if (!expected.containsKey(id))
+                problems.add(where + ": deleted event " + id + " is back");
+    }
+
+    // Helpers
+
+    private static boolean parseArgs(String[] args) {
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads": threads = Integer.parseInt(args[++i]); break;
+                    case "--virtual": virtual = true; break;
+                    case "--write-ratio": writeRatio = Double.parseDouble(args[++i]); break;
+                    case "--events": initialEvents = Integer.parseInt(args[++i]); break;
+                    case "--duration": durationSeconds = Integer.parseInt(args[++i]); break;
+                    case "--keep": keep = true; break;
+                    default: return false;
+                }
+            }
+        } catch (RuntimeException e) {
+            return false;
+        }
+        return threads > 0 && writeRatio >= 0 && writeRatio <= 1 && initialEvents >= 0 && durationSeconds > 0;
+    }
+
+    private static void deleteRecursively(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            System.out.println("Could not remove " + dir + ": " + e.getMessage());
+        }
+    }
+
+    // Log-linear latency histogram: 128 sub-buckets per power of two (< 1% error),
+    // fixed size, so recording never allocates however long the soak runs.
+    private static final class Histogram {
+        private static final int SUB_BITS = 7;
+        private static final int SUB_COUNT = 1 << SUB_BITS;
+        private final long[] buckets = new long[64 * SUB_COUNT];
+        private long count, max;
+
+        void record(long nanos) {
+            if (nanos < 0)
+                nanos = 0;
+            buckets[index(nanos)]++;
+            count++;
+            if (nanos > max)
+                max = nanos;
+        }
+
+        void add(Histogram other) {
+            for (int i = 0; i < buckets.length; i++)
+                buckets[i] += other.buckets[i];
+            count += other.count;
+            max = Math.max(max, other.max);
+        }
+
+        long count() {
+            return count;
+        }
+
+        long max() {
+            return max;
+        }
+
+        long percentile(double p) {
+            if (count == 0)
+                return 0;
+            long rank = (long) Math.ceil(count * p / 100.0);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank)
+                    return Math.min(upperBound(i), max);
+            }
+            return max;
+        }
+
+        private static int index(long v) {
+            if (v < SUB_COUNT)
+                return (int) v; // Exact below 128 ns
+            int exp = 63 - Long.numberOfLeadingZeros(v); // >= SUB_BITS
+            int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB_COUNT - 1);
+            return (exp - SUB_BITS + 1) * SUB_COUNT + sub;
+        }
+
+        private static long upperBound(int index) {
+            int group = index / SUB_COUNT;
+            int sub = index % SUB_COUNT;
+            if (group == 0)
+                return sub;
+            int exp = group + SUB_BITS - 1;
+            return ((long) (SUB_COUNT + sub + 1) << (exp - SUB_BITS)) - 1;
+        }
+    }
+
+    // Records every stop-the-world GC pause reported by the JVM while the workload runs.
+    // ZGC and Shenandoah also report whole concurrent cycles ("... Cycles" beans, action
+    // "end of GC cycle"). Those run alongside the application, so they are kept apart and
+    // never counted as pauses. G1's "G1 Concurrent GC" bean reports only its Remark and
+    // Cleanup pauses ("end of concurrent GC pause"), which do stop the application.
+    private static final class GcMonitor implements NotificationListener {
+        private final List<NotificationEmitter> emitters = new ArrayList<>();
+        private long count, totalMillis, maxMillis;
+        private long cycles, cycleMillis;
+
+        GcMonitor() {
+            for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (bean instanceof NotificationEmitter) {
+                    NotificationEmitter emitter = (NotificationEmitter) bean;
+                    emitter.addNotificationListener(this, null, null);
+                    emitters.add(emitter);
+                }
+            }
+        }
+
+        @Override
+        public synchronized void handleNotification(Notification n, Object handback) {
+            if (!n.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION))
+                return;
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+                    .from((CompositeData) n.getUserData());
+            long duration = info.getGcInfo().getDuration();
+            if (info.getGcAction().endsWith("cycle")) {
+                cycles++;
+                cycleMillis += duration;
+                return;
+            }
+            count++;
+            totalMillis += duration;
+            maxMillis = Math.max(maxMillis, duration);
+        }
+
+        void stop() {
+            for (NotificationEmitter emitter : emitters) {
+                try {
+                    emitter.removeNotificationListener(this);
+                } catch (Exception ignored) {
+                    // Already removed
+                }
+            }
+        }
+
+        synchronized long count() {
+            return count;
+        }
+
+        synchronized double totalMillis() {
+            return totalMillis;
+        }
+
+        synchronized double maxMillis() {
+            return maxMillis;
+        }
+
+        synchronized long cycles() {
+            return cycles;
+        }
+
+        synchronized double cycleMillis() {
+            return cycleMillis;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Precomputed per-day summaries for the month grid, keyed by YearMonth.
+// Navigating back and forth only reads from here; a month is rebuilt only
+// after an event in it was created, edited or deleted (see invalidate).
+public class MonthRenderCache {
+
+    private static final int MAX_MONTHS = 24; // LRU bound: two years of browsing
+    private static final int MAX_TITLES = 3; // Titles kept per day for the tooltip
+
+    // What one calendar cell needs to draw itself
+    public static class DaySummary {
+        public static final DaySummary EMPTY = new DaySummary(0, List.of(), 0);
+
+        public final int count;
+        public final List<String> firstTitles;
+        public final int busyLevel; // 0 = free, 1 = light, 2 = busy, 3 = packed
+        public final String label; // e.g. " ● 3 events", built once here instead of on every repaint
+        public final String tooltip;
+
+        DaySummary(int count, List<String> firstTitles, long busyMinutes) {
+            this.count = count;
+            this.firstTitles = firstTitles;
+            this.busyLevel = count == 0 ? 0 : busyMinutes < 120 ? 1 : busyMinutes < 360 ? 2 : 3;
+            this.label = count == 0 ? "" : " ● " + count + " events";
+            if (count == 0) {
+                this.tooltip = null;
+            } else {
+                StringBuilder sb = new StringBuilder("<html>");
+                for (String t : firstTitles)
+                    sb.append(t.replace("&", "&amp;").replace("<", "&lt;")).append("<br>");
+                if (count > firstTitles.size())
+                    sb.append("+").append(count - firstTitles.size()).append(" more");
+                this.tooltip = sb.append("</html>").toString();
+            }
+        }
+    }
+
+    private final Map<YearMonth, DaySummary[]> months = new LinkedHashMap<>(32, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<YearMonth, DaySummary[]> eldest) {
+            return size() > MAX_MONTHS;
+        }
+    };
+
+    // Summaries indexed by day-of-month - 1; built from events on a miss
+    public DaySummary[] get(YearMonth month, EventStore.Snapshot events) {
+        DaySummary[] days = months.get(month);
+        if (days == null) {
+            days = build(month, events);
+            months.put(month, days);
+        }
+        return days;
+    }
+
+    // Drops the month an event is shown in (cells count events by start date)
+    public void invalidate(Event event) {
+        if (event != null)
+            months.remove(YearMonth.from(event.getStartDateTime()));
+    }
+
+    // Drops everything, e.g. after a restore replaced the whole file
+    public void clear() {
+        months.clear();
+    }
+
+    private static DaySummary[] build(YearMonth month, EventStore.Snapshot events) {
+        int length = month.lengthOfMonth();
+        int[] counts = new int[length];
+        long[] minutes = new long[length];
+        List<List<String>> titles = new ArrayList<>(length);
+        for (int i = 0; i < length; i++)
+            titles.add(new ArrayList<>(0));
+
+        // One range query for the month instead of one pass over all events per cell.
+        // Archived events (older) come first, then the snapshot in start order,
+        // so the first titles seen are the earliest.
+        long from = ZoneCache.toEpochMillis(month.atDay(1).atStartOfDay());
+        long to = ZoneCache.toEpochMillis(month.plusMonths(1).atDay(1).atStartOfDay());
+        Consumer<Event> add = e -> {
+            LocalDate date = e.getStartDateTime().toLocalDate();
+            if (date.getYear() != month.getYear() || date.getMonth() != month.getMonth())
+                return; // Started in the previous month
+            int d = date.getDayOfMonth() - 1;
+            counts[d]++;
+            minutes[d] += e.getDurationMinutes();
+            if (titles.get(d).size() < MAX_TITLES)
+                titles.get(d).add(e.getTitle());
+        };
+        Set<Integer> archived = new HashSet<>();
+        ArchiveManager.forEachInRange(from, to, e -> {
+            archived.add(e.getId());
+            add.accept(e);
+        });
+        events.forEachInRange(from, to, EventStore.withoutArchived(archived, add));
+
+        DaySummary[] days = new DaySummary[length];
+        for (int d = 0; d < length; d++) {
+            days[d] = counts[d] == 0 ? DaySummary.EMPTY
+                    : new DaySummary(counts[d], List.copyOf(titles.get(d)), minutes[d]);
+        }
+        return days;
+    }
+}
@@ -0,0 +1,193 @@
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+// Immutable AVL tree of events ordered by start time (ties broken by id).
+// insert/remove copy only the O(log n) nodes on the search path; every other node is
+// shared with the previous version, so old snapshots stay valid and cheap to keep.
+// Each node also records the latest end time in its subtree, which lets overlap
+// queries skip whole branches that finish before the range starts.
+// All keys are epoch millis, so every comparison on the search path is a primitive long compare.
+public final class PersistentEventTree implements Iterable<Event> {
+
+    public static final PersistentEventTree EMPTY = new PersistentEventTree(null);
+
+    private final Node root;
+
+    private PersistentEventTree(Node root) {
+        this.root = root;
+    }
+
+    public int size() {
+        return root == null ? 0 : root.size;
+    }
+
+    public PersistentEventTree insert(Event event) {
+        return new PersistentEventTree(insert(root, event));
+    }
+
+    // The event must be the same one that was inserted (same start and id)
+    public PersistentEventTree remove(Event event) {
+        Node newRoot = remove(root, event);
+        return newRoot == root ? this : new PersistentEventTree(newRoot);
+    }
+
+    // Visits events occurring in [from, to) (see Event.occursIn) in start order
+    public void forEachInRange(long from, long to, Consumer<Event> action) {
+        forEachInRange(root, from, to, action);
+    }
+
+    // Returns the earliest event overlapping [from, to) other than ignoreId, or null
+    public Event firstOverlap(long from, long to, int ignoreId) {
+        return firstOverlap(root, from, to, ignoreId);
+    }
+
+    // In-order traversal with an explicit stack (no recursion, no copying)
+    @Override
+    public Iterator<Event> iterator() {
+        return new Iterator<>() {
+            private final ArrayDeque<Node> stack = new ArrayDeque<>();
+
+            {
+                pushLeft(root);
+            }
+
+            private void pushLeft(Node node) {
+                for (; node != null; node = node.left)
+                    stack.push(node);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public Event next() {
+                if (stack.isEmpty())
+                    throw new NoSuchElementException();
+                Node node = stack.pop();
+                pushLeft(node.right);
+                return node.event;
+            }
+        };
+    }
+
+    // Tree Operations
+
+    private static int compare(Event a, Event b) {
+        if (a.getStartMillis() != b.getStartMillis())
+            return a.getStartMillis() < b.getStartMillis() ? -1 : 1;
+        return Integer.compare(a.getId(), b.getId());
+    }
+
+    private static Node insert(Node node, Event event) {
+        if (node == null)
+            return new Node(event, null, null);
+        int c = compare(event, node.event);
+        if (c < 0)
+            return balance(node.event, insert(node.left, event), node.right);
+        if (c > 0)
+            return balance(node.event, node.left, insert(node.right, event));
+        return new Node(event, node.left, node.right); // Same key: replace
+    }
+
+    private static Node remove(Node node, Event event) {
+        if (node == null)
+            return null;
+        int c = compare(event, node.event);
+        if (c < 0) {
+            Node left = remove(node.left, event);
+            return left == node.left ? node : balance(node.event, left, node.right);
+        }
+        if (c > 0) {
+            Node right = remove(node.right, event);
+            return right == node.right ? node : balance(node.event, node.left, right);
+        }
+        if (node.left == null)
+            return node.right;
+        if (node.right == null)
+            return node.left;
+        Node successor = node.right;
+        while (successor.left != null)
+            successor = successor.left;
+        return balance(successor.event, node.left, remove(node.right, successor.event));
+    }
+
+    private static void forEachInRange(Node node, long from, long to, Consumer<Event> action) {
+        // Everything in this subtree ends before 'from': skip it entirely
+        if (node == null || node.maxEnd < from)
+            return;
+        forEachInRange(node.left, from, to, action);
+        if (node.event.getStartMillis() >= to)
+            return; // This node and its right subtree start too late
+        if (node.event.occursIn(from, to))
+            action.accept(node.event);
+        forEachInRange(node.right, from, to, action);
+    }
+
+    private static Event firstOverlap(Node node, long from, long to, int ignoreId) {
+        if (node == null || node.maxEnd <= from)
+            return null;
+        Event found = firstOverlap(node.left, from, to, ignoreId);
+        if (found != null)
+            return found;
+        if (node.event.getStartMillis() >= to)
+            return null;
+        if (node.event.getId() != ignoreId && node.event.overlaps(from, to))
+            return node.event;
+        return firstOverlap(node.right, from, to, ignoreId);
+    }
+
+    // AVL Balancing
+
+    private static int height(Node n) {
+        return n == null ? 0 : n.height;
+    }
+
+    private static Node balance(Event event, Node left, Node right) {
+        int diff = height(left) - height(right);
+        if (diff > 1) {
+            if (height(left.left) < height(left.right))
+                left = rotateLeft(left.left, left.event, left.right);
+            return rotateRight(left, event, right);
+        }
+        if (diff < -1) {
+            if (height(right.right) < height(right.left))
+                right = rotateRight(right.left, right.event, right.right);
+            return rotateLeft(left, event, right);
+        }
+        return new Node(event, left, right);
+    }
+
+    // Each rotation builds new nodes rather than mutating the shared ones
+    private static Node rotateRight(Node left, Event event, Node right) {
+        return new Node(left.event, left.left, new Node(event, left.right, right));
+    }
+
+    private static Node rotateLeft(Node left, Event event, Node right) {
+        return new Node(right.event, new Node(event, left, right.left), right.right);
+    }
+
+    private static final class Node {
+        final Event event;
+        final Node left, right;
+        final int height, size;
+        final long maxEnd; // Latest end time in this subtree
+
+        Node(Event event, Node left, Node right) {
+            this.event = event;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = 1 + (left == null ? 0 : left.size) + (right == null ? 0 : right.size);
+            long max = event.getEndMillis();
+            if (left != null && left.maxEnd > max)
+                max = left.maxEnd;
+            if (right != null && right.maxEnd > max)
+                max = right.maxEnd;
+            this.maxEnd = max;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+// Immutable int-keyed hash array mapped trie (HAMT).
+// put/remove return a new map that shares every untouched node with the old one,
+// so a write copies at most 7 small arrays (one per 5-bit level) instead of the whole table.
+// Keys are ints and each level consumes 5 bits, so two distinct keys always split
+// by the last level and no collision buckets are needed.
+public final class PersistentIntMap<V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    @SuppressWarnings("rawtypes")
+    private static final PersistentIntMap EMPTY = new PersistentIntMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentIntMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        Node node = root;
+        int shift = 0;
+        while (node != null) {
+            int bit = 1 << ((key >>> shift) & MASK);
+            if ((node.bitmap & bit) == 0)
+                return null;
+            Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (slot instanceof Node) {
+                node = (Node) slot;
+                shift += BITS;
+            } else {
+                Leaf leaf = (Leaf) slot;
+                return leaf.key == key ? (V) leaf.value : null;
+            }
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    public PersistentIntMap<V> put(int key, V value) {
+        if (value == null)
+            throw new IllegalArgumentException("null values are not supported");
+        boolean[] added = { false };
+        Node newRoot = put(root == null ? Node.EMPTY : root, 0, new Leaf(key, value), added);
+        return new PersistentIntMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    public PersistentIntMap<V> remove(int key) {
+        if (root == null)
+            return this;
+        Node newRoot = remove(root, 0, key);
+        if (newRoot == root)
+            return this; // Key was not present
+        return newRoot == null ? empty() : new PersistentIntMap<>(newRoot, size - 1);
+    }
+
+    // Recursive helpers: they copy only the nodes on the path to the key
+
+    private static Node put(Node node, int shift, Leaf leaf, boolean[] added) {
+        int bit = 1 << ((leaf.key >>> shift) & MASK);
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+
+        if ((node.bitmap & bit) == 0) {
+            added[0] = true;
+            Object[] slots = new Object[node.slots.length + 1];
+            System.arraycopy(node.slots, 0, slots, 0, index);
+            slots[index] = leaf;
+            System.arraycopy(node.slots, index, slots, index + 1, node.slots.length - index);
+            return new Node(node.bitmap | bit, slots);
+        }
+
+        Object slot = node.slots[index];
+        Object replacement;
+        if (slot instanceof Node) {
+            replacement = put((Node) slot, shift + BITS, leaf, added);
+        } else if (((Leaf) slot).key == leaf.key) {
+            replacement = leaf; // Overwrite
+        } else {
+            // Two different keys share this chunk: push both one level down
+            added[0] = true;
+            Node child = put(Node.EMPTY, shift + BITS, (Leaf) slot, new boolean[1]);
+            replacement = put(child, shift + BITS, leaf, new boolean[1]);
+        }
+        Object[] slots = node.slots.clone();
+        slots[index] = replacement;
+        return new Node(node.bitmap, slots);
+    }
+
+    // Returns the same node if nothing changed, null if the node became empty
+    private static Node remove(Node node, int shift, int key) {
+        int bit = 1 << ((key >>> shift) & MASK);
+        if ((node.bitmap & bit) == 0)
+            return node;
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        Object slot = node.slots[index];
+
+        Object replacement;
+        if (slot instanceof Node) {
+            Node child = remove((Node) slot, shift + BITS, key);
+            if (child == slot)
+                return node;
+            // Pull a lone leaf back up so paths stay short
+            replacement = (child != null && child.slots.length == 1 && child.slots[0] instanceof Leaf)
+                    ? child.slots[0]
+                    : child;
+        } else {
+            if (((Leaf) slot).key != key)
+                return node;
+            replacement = null;
+        }
+
+        if (replacement != null) {
+            Object[] slots = node.slots.clone();
+            slots[index] = replacement;
+            return new Node(node.bitmap, slots);
+        }
+        if (node.slots.length == 1)
+            return null;
+        Object[] slots = new Object[node.slots.length - 1];
+        System.arraycopy(node.slots, 0, slots, 0, index);
+        System.arraycopy(node.slots, index + 1, slots, index, slots.length - index);
+        return new Node(node.bitmap & ~bit, slots);
+    }
+
+    private static final class Node {
+        static final Node EMPTY = new Node(0, new Object[0]);
+
+        final int bitmap; // Which of the 32 chunks are present
+        final Object[] slots; // Leaf or Node, packed in bit order
+
+        Node(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+    }
+
+    private static final class Leaf {
+        final int key;
+        final Object value;
+
+        Leaf(int key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -1,65 +1,109 @@
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class SchedulerLogic {
 
     // Feature: Conflict Detection
     // Returns true if the new time slot overlaps with an existing event
     public static boolean hasConflict(LocalDateTime start, LocalDateTime end) {
-        List<Event> events = FileManager.loadEvents();
-        for (Event e : events) {
-            // Logic: (StartA < EndB) and (EndA > StartB) means overlap
-            if (start.isBefore(e.getEndDateTime()) && end.isAfter(e.getStartDateTime())) {
-                System.out.println("  CONFLICT WARNING: Overlaps with event [" + e.getTitle() + "]");
-                return true;
-            }
+        Event e = EventStore.findConflict(start, end, -1);
+        if (e != null) {
+            System.out.println("  CONFLICT WARNING: Overlaps with event [" + e.getTitle() + "]");
+            return true;
         }
         return false;
     }
 
     // Feature: Search by Keyword (Title or Description)
     public static List<Event> searchEvents(String keyword) {
-        List<Event> allEvents = FileManager.loadEvents();
+        return EventStore.search(keyword);
+    }
+
+    // Feature: Search by Keyword, streaming version (used by the CLI)
+    // Archived matches come first, then the data file
+    public static void forEachMatch(String keyword, Consumer<Event> action) {
+        ArchiveManager.forEachMatch(keyword, action);
         String lowerKeyword = keyword.toLowerCase();
+        Predicate<Event> archived = ArchiveManager.archivedTest();
+        FileManager.forEachEvent(e -> {
+            if ((e.getTitle().toLowerCase().contains(lowerKeyword) ||
+                    e.getDescription().toLowerCase().contains(lowerKeyword)) && !archived.test(e))
+                action.accept(e);
+        });
+    }
 
-        return allEvents.stream()
-                .filter(e -> e.getTitle().toLowerCase().contains(lowerKeyword) ||
-                        e.getDescription().toLowerCase().contains(lowerKeyword))
-                .collect(Collectors.toList());
+    // Feature: Range Query, streams events occurring in [from, to) (see Event.occursIn)
+    public static void forEachInRange(LocalDateTime from, LocalDateTime to, Consumer<Event> action) {
+        forEachInRange(ZoneCache.toEpochMillis(from), ZoneCache.toEpochMillis(to), action);
     }
 
-    // Feature: Delete Event by ID
-    public static boolean deleteEvent(int id) {
+    public static void forEachInRange(long from, long to, Consumer<Event> action) {
+        ArchiveManager.forEachInRange(from, to, action);
+        Predicate<Event> archived = ArchiveManager.archivedTest();
+        FileManager.forEachEvent(e -> {
+            if (e.occursIn(from, to) && !archived.test(e))
+                action.accept(e);
+        });
+    }
+
+    // Feature: Find All Conflicting Pairs (archived events are settled history and are not checked)
+    // Sweeps the events in start order, keeping only those still running,
+    // so each event is compared against its actual overlaps instead of every other event.
+    public static int findConflicts(BiConsumer<Event, Event> action) {
         List<Event> events = FileManager.loadEvents();
-        boolean removed = events.removeIf(e -> e.getId() == id);
-        if (removed) {
-            FileManager.saveEvents(events); // Rewrite the file
+        events.removeIf(ArchiveManager.archivedTest()); // Copies left by an interrupted archive run
+        events.sort(null);
+        List<Event> active = new ArrayList<>();
+        int pairs = 0;
+        for (Event e : events) {
+            active.removeIf(a -> a.getEndMillis() <= e.getStartMillis());
+            for (Event a : active) {
+                action.accept(a, e);
+                pairs++;
+            }
+            active.add(e);
         }
-        return removed;
+        return pairs;
+    }
+
+    // Feature: Delete Event by ID
+    public static boolean deleteEvent(int id) {
+        return EventStore.delete(id); // Updates the shared snapshot and rewrites the file
     }
 
     // Feature: Statistics Dashboard
     public static void showStatistics() {
-        List<Event> events = FileManager.loadEvents();
-        if (events.isEmpty()) {
+        long now = System.currentTimeMillis();
+        long[] totals = new long[3]; // { events, upcoming, minutes }
+
+        // Streamed so large calendars are never fully loaded
+        Consumer<Event> tally = e -> {
+            totals[0]++;
+            totals[2] += e.getDurationMinutes();
+            if (e.getStartMillis() > now)
+                totals[1]++;
+        };
+        ArchiveManager.forEach(tally);
+        Predicate<Event> archived = ArchiveManager.archivedTest();
+        FileManager.forEachEvent(e -> {
+            if (!archived.test(e))
+                tally.accept(e);
+        });
+
+        if (totals[0] == 0) {
             System.out.println("No data available for statistics.");
             return;
         }
-        long totalMinutes = 0;
-        LocalDateTime now = LocalDateTime.now();
-        int futureEvents = 0;
-
-        for (Event e : events) {
-            totalMinutes += Duration.between(e.getStartDateTime(), e.getEndDateTime()).toMinutes();
-            if (e.getStartDateTime().isAfter(now))
-                futureEvents++;
-        }
+        long totalMinutes = totals[2];
 
         System.out.println("=== YOUR TIME ANALYSIS ===");
-        System.out.println("Total Events: " + events.size());
-        System.out.println("Upcoming Events: " + futureEvents);
+        System.out.println("Total Events: " + totals[0]);
+        System.out.println("Upcoming Events: " + totals[1]);
+        System.out.println("Archived Events: " + ArchiveManager.count());
         System.out.println("Total Scheduled Time: " + totalMinutes / 60 + " Hours " + totalMinutes % 60 + " Minutes");
         System.out.println("=============================");
     }
@@ -0,0 +1,106 @@
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Converts between epoch milliseconds and local date-times.
+//
+// Events are stored as UTC epoch millis; local times only exist for display and input.
+// ZoneRules.getOffset does a binary search over the zone's transition history, so each
+// zone caches the offset window (between two DST transitions) it last resolved: displaying
+// a month of events is then one range check and one addition per timestamp.
+public class ZoneCache {
+
+    // Zone the calendar is displayed in; override with -Dcalendar.zone=Europe/Paris
+    public static final ZoneId DISPLAY_ZONE = ZoneId.of(System.getProperty("calendar.zone",
+            ZoneId.systemDefault().getId()));
+
+    private static final ConcurrentHashMap<ZoneId, Window> windows = new ConcurrentHashMap<>();
+
+    // Offset that applies to every instant in [fromMillis, untilMillis)
+    private static final class Window {
+        final long fromMillis, untilMillis;
+        final int offsetMillis;
+
+        Window(long fromMillis, long untilMillis, int offsetMillis) {
+            this.fromMillis = fromMillis;
+            this.untilMillis = untilMillis;
+            this.offsetMillis = offsetMillis;
+        }
+    }
+
+    // Display-time conversion (hot path)
+
+    public static LocalDateTime toLocal(long epochMillis) {
+        return toLocal(epochMillis, DISPLAY_ZONE);
+    }
+
+    public static LocalDateTime toLocal(long epochMillis, ZoneId zone) {
+        long local = epochMillis + offsetMillis(epochMillis, zone);
+        long seconds = Math.floorDiv(local, 1000L);
+        int nanos = (int) Math.floorMod(local, 1000L) * 1_000_000;
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    public static int offsetMillis(long epochMillis, ZoneId zone) {
+        Window w = windows.get(zone);
+        if (w == null || epochMillis < w.fromMillis || epochMillis >= w.untilMillis) {
+            w = resolve(epochMillis, zone);
+            windows.put(zone, w);
+        }
+        return w.offsetMillis;
+    }
+
+    // File format: local time in the zone plus its offset, e.g. 2026-01-19T09:00:00+08:00
+    public static String format(long epochMillis, ZoneId zone) {
+        int offset = offsetMillis(epochMillis, zone);
+        return toLocal(epochMillis, zone).format(Event.FILE_FORMATTER)
+                + ZoneOffset.ofTotalSeconds(offset / 1000).getId();
+    }
+
+    // Accepts both the offset form written by format() and a plain local date-time,
+    // which is read as a time in the given zone (files from before zones were stored)
+    public static long parse(String text, ZoneId zone) {
+        int t = text.indexOf('T');
+        if (t > 0 && (text.endsWith("Z") || text.indexOf('+', t) > 0 || text.indexOf('-', t) > 0))
+            return OffsetDateTime.parse(text).toInstant().toEpochMilli();
+        return toEpochMillis(LocalDateTime.parse(text, Event.FILE_FORMATTER), zone);
+    }
+
+    // Input conversion (cold path: parsing and saving)
+    // Gaps and overlaps follow java.time's rules (a skipped hour moves forward, an
+    // ambiguous hour takes the earlier offset). Out-of-range values such as
+    // LocalDateTime.MIN/MAX clamp to Long.MIN_VALUE/MAX_VALUE so they stay usable as open bounds.
+
+    public static long toEpochMillis(LocalDateTime local) {
+        return toEpochMillis(local, DISPLAY_ZONE);
+    }
+
+    public static long toEpochMillis(LocalDateTime local, ZoneId zone) {
+        if (local.getYear() < -100_000)
+            return Long.MIN_VALUE;
+        if (local.getYear() > 100_000)
+            return Long.MAX_VALUE;
+        return local.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private static Window resolve(long epochMillis, ZoneId zone) {
+        ZoneRules rules = zone.getRules();
+        if (rules.isFixedOffset())
+            return new Window(Long.MIN_VALUE, Long.MAX_VALUE, rules.getOffset(Instant.EPOCH).getTotalSeconds() * 1000);
+
+        Instant instant = Instant.ofEpochMilli(epochMillis);
+        int offset = rules.getOffset(instant).getTotalSeconds() * 1000;
+        // previousTransition is strictly before its argument; the +1 ms makes an instant
+        // that sits exactly on a transition start the new window instead of the old one
+        ZoneOffsetTransition previous = rules.previousTransition(instant.plusMillis(1));
+        ZoneOffsetTransition next = rules.nextTransition(instant);
+        long from = previous == null ? Long.MIN_VALUE : previous.toEpochSecond() * 1000;
+        long until = next == null ? Long.MAX_VALUE : next.toEpochSecond() * 1000;
+        return new Window(from, until, offset);
+    }
+}